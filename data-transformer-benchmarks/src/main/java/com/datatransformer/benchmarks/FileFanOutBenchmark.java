@@ -0,0 +1,102 @@
+package com.datatransformer.benchmarks;
+
+import com.datatransformer.DataTransformerApplication;
+import com.datatransformer.service.PipelineOrchestrator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the file-level executors of {@link PipelineOrchestrator} on thousands of small files, where
+ * per-file overhead (listing, opening, moving) matters more than parsing.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class FileFanOutBenchmark {
+
+    @Param({ "pool", "virtual", "work_stealing" })
+    private String executor;
+
+    @Param({ "5000" })
+    private int files;
+
+    @Param({ "20" })
+    private long recordsPerFile;
+
+    private ConfigurableApplicationContext context;
+    private PipelineOrchestrator orchestrator;
+    private Path directory;
+    private Path templates;
+    private Path inputDir;
+    private Path outputDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("fan-out-benchmark");
+        templates = Files.createDirectories(directory.resolve("templates"));
+        for (int i = 0; i < files; i++) {
+            new GraphExportGenerator(recordsPerFile, 0.1, 5, i).write(templates.resolve("small-" + i + ".json"));
+        }
+        context = new SpringApplicationBuilder(DataTransformerApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "pipeline.executor.type=" + executor,
+                        "logging.level.com.datatransformer=WARN")
+                .run();
+        orchestrator = context.getBean(PipelineOrchestrator.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreInputs() throws IOException {
+        inputDir = Files.createDirectories(directory.resolve("input"));
+        outputDir = Files.createDirectories(directory.resolve("output"));
+        List<Path> templateFiles;
+        try (var stream = Files.list(templates)) {
+            templateFiles = stream.toList();
+        }
+        for (Path file : templateFiles) {
+            BenchmarkFiles.linkOrCopy(file, inputDir.resolve(file.getFileName()));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearOutputs() throws IOException {
+        BenchmarkFiles.deleteRecursively(inputDir);
+        BenchmarkFiles.deleteRecursively(outputDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void run() {
+        orchestrator.run(inputDir, outputDir);
+    }
+}
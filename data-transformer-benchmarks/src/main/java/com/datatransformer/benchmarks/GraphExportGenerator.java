@@ -0,0 +1,121 @@
+package com.datatransformer.benchmarks;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Writes synthetic Microsoft Graph user exports shaped like {@code TestUtil.getSampleRawUserJson()}:
+ * a top-level "value" array of users with a nested signInActivity object.
+ */
+public class GraphExportGenerator {
+
+    private static final String[] USER_TYPES = { "Member", "Guest" };
+    private static final String[] LOCATIONS = { "US", "IL", "GB", "DE", "FR", "IN", "JP", "BR" };
+    private static final String[] DOMAINS = { "example.com", "contoso.com", "fabrikam.com" };
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final long records;
+    private final double nullRatio;
+    private final int extraFields;
+    private final long seed;
+
+    /**
+     * @param records     number of users in the "value" array
+     * @param nullRatio   probability that each nullable field is written as null
+     * @param extraFields number of unknown fields per user that the reader has to skip
+     * @param seed        random seed, so the same arguments always produce the same file
+     */
+    public GraphExportGenerator(long records, double nullRatio, int extraFields, long seed) {
+        this.records = records;
+        this.nullRatio = nullRatio;
+        this.extraFields = extraFields;
+        this.seed = seed;
+    }
+
+    public void write(Path output) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (JsonGenerator generator = jsonFactory.createGenerator(output.toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("@odata.context", "https://graph.microsoft.com/v1.0/$metadata#users");
+            generator.writeArrayFieldStart("value");
+            for (long i = 0; i < records; i++) {
+                writeUser(generator, random, i);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeUser(JsonGenerator generator, SplittableRandom random, long index) throws IOException {
+        String domain = DOMAINS[random.nextInt(DOMAINS.length)];
+        String upn = "user" + index + "@" + domain;
+
+        generator.writeStartObject();
+        generator.writeStringField("id", new UUID(seed, index).toString());
+        generator.writeStringField("userPrincipalName", upn);
+        writeNullable(generator, random, "mail", upn);
+        writeNullable(generator, random, "userType", USER_TYPES[random.nextInt(USER_TYPES.length)]);
+        writeNullable(generator, random, "usageLocation", LOCATIONS[random.nextInt(LOCATIONS.length)]);
+        generator.writeBooleanField("accountEnabled", random.nextInt(10) != 0);
+        writeNullable(generator, random, "givenName", "User");
+        writeNullable(generator, random, "surname", Long.toString(index));
+        for (int field = 0; field < extraFields; field++) {
+            writeExtraField(generator, random, field);
+        }
+        if (random.nextDouble() < nullRatio) {
+            generator.writeNullField("signInActivity");
+        } else {
+            generator.writeObjectFieldStart("signInActivity");
+            writeNullable(generator, random, "lastSignInDateTime", timestamp(random));
+            generator.writeStringField("lastSignInRequestId", new UUID(random.nextLong(), random.nextLong()).toString());
+            writeNullable(generator, random, "lastNonInteractiveSignInDateTime", timestamp(random));
+            generator.writeStringField("lastNonInteractiveSignInRequestId",
+                    new UUID(random.nextLong(), random.nextLong()).toString());
+            writeNullable(generator, random, "lastSuccessfulSignInDateTime", timestamp(random));
+            generator.writeStringField("lastSuccessfulSignInRequestId",
+                    new UUID(random.nextLong(), random.nextLong()).toString());
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    // Alternates scalar, array and object values so readers exercise skipChildren()
+    private static void writeExtraField(JsonGenerator generator, SplittableRandom random, int field)
+            throws IOException {
+        String name = "extensionAttribute" + field;
+        switch (field % 3) {
+            case 0 -> generator.writeStringField(name, "value-" + random.nextInt(1000));
+            case 1 -> {
+                generator.writeArrayFieldStart(name);
+                generator.writeString("+1 555 0" + random.nextInt(1000));
+                generator.writeEndArray();
+            }
+            default -> {
+                generator.writeObjectFieldStart(name);
+                generator.writeNumberField("code", random.nextInt(1000));
+                generator.writeBooleanField("flag", random.nextBoolean());
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    private void writeNullable(JsonGenerator generator, SplittableRandom random, String name, String value)
+            throws IOException {
+        if (random.nextDouble() < nullRatio) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private static String timestamp(SplittableRandom random) {
+        return String.format("20%02d-%02d-%02dT%02d:%02d:%02dZ", 15 + random.nextInt(10), 1 + random.nextInt(12),
+                1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+}
@@ -0,0 +1,90 @@
+package com.datatransformer.benchmarks;
+
+import com.datatransformer.component.JsonFileSink;
+import com.datatransformer.component.JsonFileSource;
+import com.datatransformer.component.UserTransformer;
+import com.datatransformer.config.PipelineConfig;
+import com.datatransformer.model.RawUser;
+import com.datatransformer.model.TargetUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes a fixed list of transformed users to one file per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JsonFileSinkBenchmark {
+
+    @Param({ "100000" })
+    private long records;
+
+    private Path directory;
+    private Path output;
+    private List<TargetUser> users;
+    private JsonFileSink sink;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class WriteCounters {
+        public long records;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new PipelineConfig().objectMapper(new SimpleMeterRegistry());
+        directory = Files.createTempDirectory("sink-benchmark");
+        Path input = directory.resolve("users.json");
+        new GraphExportGenerator(records, 0.1, 0, 42).write(input);
+        UserTransformer transformer = new UserTransformer();
+        try (Stream<RawUser> stream = new JsonFileSource(objectMapper).read(input)) {
+            users = stream.map(transformer::transform).toList();
+        }
+        output = directory.resolve("output.json");
+        sink = new JsonFileSink(objectMapper);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void write(WriteCounters counters) throws IOException {
+        sink.write(users.stream(), output);
+        counters.records += users.size();
+        counters.bytes += Files.size(output);
+    }
+}
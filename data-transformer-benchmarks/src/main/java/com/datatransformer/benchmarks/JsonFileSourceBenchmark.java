@@ -0,0 +1,106 @@
+package com.datatransformer.benchmarks;
+
+import com.datatransformer.component.JsonFileSource;
+import com.datatransformer.config.PipelineConfig;
+import com.datatransformer.model.RawUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.DirectFieldAccessor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parses one synthetic export per operation. The records and bytes counters are reported as per-second rates.
+ * Run with {@code -prof gc} to compare the allocation rate with and without canonical strings ({@code intern}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JsonFileSourceBenchmark {
+
+    @Param({ "100000" })
+    private long records;
+
+    @Param({ "0.1" })
+    private double nullRatio;
+
+    @Param({ "5" })
+    private int extraFields;
+
+    @Param({ "STREAM", "MMAP" })
+    private JsonFileSource.InputMode inputMode;
+
+    @Param({ "true", "false" })
+    private boolean intern;
+
+    private Path directory;
+    private Path file;
+    private long fileSize;
+    private JsonFileSource source;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ReadCounters {
+        public long records;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("source-benchmark");
+        file = directory.resolve("users.json");
+        new GraphExportGenerator(records, nullRatio, extraFields, 42).write(file);
+        fileSize = Files.size(file);
+
+        PipelineConfig config = new PipelineConfig();
+        if (!intern) {
+            new DirectFieldAccessor(config).setPropertyValue("internFields", List.of());
+        }
+        source = new JsonFileSource(config.objectMapper(new SimpleMeterRegistry()));
+        new DirectFieldAccessor(source).setPropertyValue("inputMode", inputMode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void read(ReadCounters counters, Blackhole blackhole) throws IOException {
+        try (Stream<RawUser> users = source.read(file)) {
+            users.forEach(user -> {
+                blackhole.consume(user);
+                counters.records++;
+            });
+        }
+        counters.bytes += fileSize;
+    }
+}
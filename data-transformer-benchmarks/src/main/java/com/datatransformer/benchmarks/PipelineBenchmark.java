@@ -0,0 +1,114 @@
+package com.datatransformer.benchmarks;
+
+import com.datatransformer.DataTransformerApplication;
+import com.datatransformer.service.PipelineOrchestrator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link PipelineOrchestrator#run} end to end, in a Spring context configured with the benchmark
+ * parameters, over either many small files or one huge file. Inputs are restored before each invocation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class PipelineBenchmark {
+
+    @Param({ "many-small", "one-huge" })
+    private String layout;
+
+    @Param({ "sequential", "parallel", "split", "staged", "fast_path" })
+    private String mode;
+
+    @Param({ "200" })
+    private int smallFiles;
+
+    @Param({ "1000" })
+    private long smallFileRecords;
+
+    @Param({ "1000000" })
+    private long hugeFileRecords;
+
+    private ConfigurableApplicationContext context;
+    private PipelineOrchestrator orchestrator;
+    private Path directory;
+    private Path templates;
+    private Path inputDir;
+    private Path outputDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pipeline-benchmark");
+        templates = Files.createDirectories(directory.resolve("templates"));
+        if ("one-huge".equals(layout)) {
+            new GraphExportGenerator(hugeFileRecords, 0.1, 5, 42).write(templates.resolve("huge.json"));
+        } else {
+            for (int i = 0; i < smallFiles; i++) {
+                new GraphExportGenerator(smallFileRecords, 0.1, 5, i).write(templates.resolve("small-" + i + ".json"));
+            }
+        }
+        context = new SpringApplicationBuilder(DataTransformerApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "pipeline.mode=" + mode,
+                        "pipeline.source.type=" + ("split".equals(mode) ? "splittable" : "json"),
+                        "logging.level.com.datatransformer=WARN")
+                .run();
+        orchestrator = context.getBean(PipelineOrchestrator.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreInputs() throws IOException {
+        inputDir = Files.createDirectories(directory.resolve("input"));
+        outputDir = Files.createDirectories(directory.resolve("output"));
+        List<Path> files;
+        try (var stream = Files.list(templates)) {
+            files = new ArrayList<>(stream.toList());
+        }
+        for (Path file : files) {
+            BenchmarkFiles.linkOrCopy(file, inputDir.resolve(file.getFileName()));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearOutputs() throws IOException {
+        BenchmarkFiles.deleteRecursively(inputDir);
+        BenchmarkFiles.deleteRecursively(outputDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void run() {
+        orchestrator.run(inputDir, outputDir);
+    }
+}
@@ -0,0 +1,145 @@
+package com.datatransformer.benchmarks;
+
+import com.datatransformer.component.JsonFileSource;
+import com.datatransformer.component.UserTransformer;
+import com.datatransformer.config.PipelineConfig;
+import com.datatransformer.model.RawUser;
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.BinaryRecordReader;
+import com.datatransformer.pipeline.BinaryRecordWriter;
+import com.datatransformer.pipeline.TargetUserCodec;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Encodes and decodes a batch of transformed users per operation in the pipeline's binary record format and in
+ * Jackson's JSON, Smile and CBOR, as they would be for a spill file. The encoded size per user is printed once per
+ * trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RecordCodecBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({ "binary", "smile", "cbor", "json" })
+    private String format;
+
+    private TargetUser[] users;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4 * 1024 * 1024);
+    private byte[] encoded;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private final TargetUserCodec codec = new TargetUserCodec();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path file = Files.createTempFile("codec-benchmark", ".json");
+        try {
+            new GraphExportGenerator(USERS, 0.1, 0, 42).write(file);
+            UserTransformer transformer = new UserTransformer();
+            try (Stream<RawUser> stream = new JsonFileSource(new PipelineConfig().objectMapper(new SimpleMeterRegistry())).read(file)) {
+                users = stream.map(transformer::transform).toArray(TargetUser[]::new);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        ObjectMapper mapper = switch (format) {
+            case "smile" -> new SmileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> new ObjectMapper();
+        };
+        writer = mapper.writerFor(TargetUser.class);
+        reader = mapper.readerFor(TargetUser.class);
+        encode();
+        encoded = buffer.toByteArray();
+        System.out.printf("%n%s: %.1f bytes per user%n", format, (double) encoded.length / USERS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public int encode() throws IOException {
+        buffer.reset();
+        if ("binary".equals(format)) {
+            try (BinaryRecordWriter out = new BinaryRecordWriter(buffer)) {
+                for (TargetUser user : users) {
+                    codec.write(user, out);
+                }
+            }
+        } else {
+            try (SequenceWriter out = writer.writeValues(buffer)) {
+                for (TargetUser user : users) {
+                    out.write(user);
+                }
+            }
+        }
+        return buffer.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public void decode(Blackhole blackhole) throws IOException {
+        if ("binary".equals(format)) {
+            BinaryRecordReader in = new BinaryRecordReader(ByteBuffer.wrap(encoded));
+            while (in.next()) {
+                blackhole.consume(codec.read(in.record()));
+            }
+        } else {
+            try (MappingIterator<TargetUser> in = reader.readValues(encoded)) {
+                while (in.hasNext()) {
+                    blackhole.consume(in.next());
+                }
+            }
+        }
+    }
+
+    // Only the sort key, as the merge of sorted runs reads it
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public void decodeId(Blackhole blackhole) throws IOException {
+        if ("binary".equals(format)) {
+            BinaryRecordReader in = new BinaryRecordReader(ByteBuffer.wrap(encoded));
+            while (in.next()) {
+                blackhole.consume(in.record().string(TargetUserCodec.ID));
+            }
+        } else {
+            try (MappingIterator<TargetUser> in = reader.readValues(encoded)) {
+                while (in.hasNext()) {
+                    blackhole.consume(in.next().id());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.datatransformer.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Measures startup of short-lived runs, which JMH cannot: every run is a fresh JVM over a few dozen small files.
+ * Each launch variant runs several times and reports time to first record, as logged by the orchestrator in JVM
+ * uptime, and wall-clock time until the process exits, as median and minimum.
+ *
+ * <pre>
+ * mvn clean install -DskipTests                            # from the repository root
+ * mvn package -Pfast-start -DskipTests -f data-transformer  # optional, adds the AOT + CDS variant
+ * java -cp data-transformer-benchmarks/target/benchmarks.jar com.datatransformer.benchmarks.StartupHarness \
+ *     data-transformer/target [runs] [files] [usersPerFile]
+ * </pre>
+ */
+public final class StartupHarness {
+
+    private static final Pattern FIRST_RECORD = Pattern.compile("First record (\\d+) ms after JVM start");
+
+    private StartupHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path target = Paths.get(args.length > 0 ? args[0] : "data-transformer/target");
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int files = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        long usersPerFile = args.length > 3 ? Long.parseLong(args[3]) : 50;
+
+        List<Variant> variants = variants(target);
+        Path directory = Files.createTempDirectory("startup-harness");
+        try {
+            Path templates = Files.createDirectories(directory.resolve("templates"));
+            for (int i = 0; i < files; i++) {
+                new GraphExportGenerator(usersPerFile, 0.1, 0, i).write(templates.resolve("users-" + i + ".json"));
+            }
+            System.out.printf("%d runs over %d files of %d users%n", runs, files, usersPerFile);
+            System.out.printf("%-20s %24s %24s%n", "variant", "first record ms (p50/min)", "wall ms (p50/min)");
+            for (Variant variant : variants) {
+                long[] firstRecord = new long[runs];
+                long[] wall = new long[runs];
+                for (int run = 0; run < runs; run++) {
+                    Path inputDir = directory.resolve("input");
+                    Path outputDir = directory.resolve("output");
+                    BenchmarkFiles.deleteRecursively(inputDir);
+                    BenchmarkFiles.deleteRecursively(outputDir);
+                    Files.createDirectories(inputDir);
+                    try (Stream<Path> templateFiles = Files.list(templates)) {
+                        for (Path template : (Iterable<Path>) templateFiles::iterator) {
+                            BenchmarkFiles.linkOrCopy(template, inputDir.resolve(template.getFileName()));
+                        }
+                    }
+                    long start = System.nanoTime();
+                    firstRecord[run] = launch(variant, inputDir, outputDir);
+                    wall[run] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                Arrays.sort(firstRecord);
+                Arrays.sort(wall);
+                System.out.printf("%-20s %24s %24s%n", variant.name(),
+                        firstRecord[runs / 2] + " / " + firstRecord[0], wall[runs / 2] + " / " + wall[0]);
+            }
+        } finally {
+            BenchmarkFiles.deleteRecursively(directory);
+        }
+    }
+
+    private static List<Variant> variants(Path target) throws IOException {
+        Path execJar = find(target, "-exec.jar")
+                .orElseThrow(() -> new IllegalStateException("No executable jar in " + target));
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("default", List.of(java, "-jar", execJar.toString())));
+        variants.add(new Variant("fast-start", List.of(java, "-Dspring.profiles.active=fast-start",
+                "-jar", execJar.toString())));
+        Path fastStart = target.resolve("fast-start");
+        Path archive = fastStart.resolve("app.jsa");
+        Optional<Path> fastStartJar = Files.isDirectory(fastStart) ? find(fastStart, "-fast-start.jar") : Optional.empty();
+        if (fastStartJar.isPresent() && Files.exists(archive)) {
+            variants.add(new Variant("fast-start+aot+cds", List.of(java, "-XX:SharedArchiveFile=" + archive,
+                    "-XX:TieredStopAtLevel=1", "-Dspring.aot.enabled=true", "-Dspring.profiles.active=fast-start",
+                    "-jar", fastStartJar.get().toString())));
+        } else {
+            System.out.println("No fast-start build in " + fastStart + ", skipping the AOT + CDS variant");
+        }
+        return variants;
+    }
+
+    private static Optional<Path> find(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix)).findFirst();
+        }
+    }
+
+    // Returns the time to first record the run logged; the process output is drained until it exits
+    private static long launch(Variant variant, Path inputDir, Path outputDir)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(variant.command());
+        command.add("--input.dir=" + inputDir);
+        command.add("--output.dir=" + outputDir);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long firstRecord = -1;
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                output.add(line);
+                Matcher matcher = FIRST_RECORD.matcher(line);
+                if (firstRecord < 0 && matcher.find()) {
+                    firstRecord = Long.parseLong(matcher.group(1));
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || firstRecord < 0) {
+            output.forEach(System.err::println);
+            throw new IllegalStateException(variant.name() + " exited with " + exitCode
+                    + (firstRecord < 0 ? " without logging its first record" : ""));
+        }
+        return firstRecord;
+    }
+
+    private record Variant(String name, List<String> command) {
+    }
+}
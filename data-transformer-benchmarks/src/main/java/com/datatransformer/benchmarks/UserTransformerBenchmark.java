@@ -0,0 +1,75 @@
+package com.datatransformer.benchmarks;
+
+import com.datatransformer.component.JsonFileSource;
+import com.datatransformer.component.MappedUserTransformer;
+import com.datatransformer.component.UserTransformer;
+import com.datatransformer.config.PipelineConfig;
+import com.datatransformer.model.RawUser;
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.interfaces.Transformer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Transforms one user per operation, cycling through users parsed from a synthetic export.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class UserTransformerBenchmark {
+
+    @Param({ "0.1" })
+    private double nullRatio;
+
+    // user: the hand-written UserTransformer; mapping: the bundled declarative mapping compiled by MappingCompiler
+    @Param({ "user", "mapping" })
+    private String implementation;
+
+    private Transformer<RawUser, TargetUser> transformer;
+    private RawUser[] users;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        transformer = "mapping".equals(implementation)
+                ? new MappedUserTransformer(new DefaultResourceLoader(), "classpath:mappings/user.yaml")
+                : new UserTransformer();
+        Path file = Files.createTempFile("transformer-benchmark", ".json");
+        try {
+            new GraphExportGenerator(10_000, nullRatio, 0, 42).write(file);
+            try (Stream<RawUser> stream = new JsonFileSource(new PipelineConfig().objectMapper(new SimpleMeterRegistry())).read(file)) {
+                users = stream.toArray(RawUser[]::new);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public TargetUser transform() {
+        RawUser user = users[next];
+        next = next + 1 == users.length ? 0 : next + 1;
+        return transformer.transform(user);
+    }
+}
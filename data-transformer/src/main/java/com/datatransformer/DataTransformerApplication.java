@@ -1,19 +1,22 @@
 package com.datatransformer;
 
 import com.datatransformer.service.PipelineOrchestrator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.retry.annotation.EnableRetry;
 
 import java.nio.file.Paths;
 
 @SpringBootApplication
-@EnableRetry
 public class DataTransformerApplication implements CommandLineRunner {
 
     private final PipelineOrchestrator orchestrator;
 
+    // Keep running and process files as they arrive instead of a single pass over the input directory
+    @Value("${pipeline.watch.enabled:false}")
+    private boolean watch;
+
     public DataTransformerApplication(PipelineOrchestrator orchestrator) {
         this.orchestrator = orchestrator;
     }
@@ -39,6 +42,10 @@ public class DataTransformerApplication implements CommandLineRunner {
             return;
         }
 
-        orchestrator.run(Paths.get(inputDir), Paths.get(outputDir));
+        if (watch) {
+            orchestrator.watch(Paths.get(inputDir), Paths.get(outputDir));
+        } else {
+            orchestrator.run(Paths.get(inputDir), Paths.get(outputDir));
+        }
     }
 }
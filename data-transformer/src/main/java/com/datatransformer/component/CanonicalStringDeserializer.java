@@ -0,0 +1,56 @@
+package com.datatransformer.component;
+
+import com.datatransformer.pipeline.StringCanonicalizer;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * String deserializer that hands the configured properties of one class a shared instance per distinct value,
+ * see {@link StringCanonicalizer}. Every other String property gets Jackson's standard deserializer.
+ */
+public class CanonicalStringDeserializer extends StdScalarDeserializer<String> implements ContextualDeserializer {
+
+    private final Class<?> owner;
+    private final Map<String, StringCanonicalizer> canonicalizers;
+    private final StringCanonicalizer canonicalizer;
+
+    public CanonicalStringDeserializer(Class<?> owner, Map<String, StringCanonicalizer> canonicalizers) {
+        this(owner, canonicalizers, null);
+    }
+
+    private CanonicalStringDeserializer(Class<?> owner, Map<String, StringCanonicalizer> canonicalizers,
+            StringCanonicalizer canonicalizer) {
+        super(String.class);
+        this.owner = owner;
+        this.canonicalizers = canonicalizers;
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+        if (property != null && property.getMember() != null && property.getMember().getDeclaringClass() == owner) {
+            StringCanonicalizer fieldCanonicalizer = canonicalizers.get(property.getName());
+            if (fieldCanonicalizer != null) {
+                return new CanonicalStringDeserializer(owner, canonicalizers, fieldCanonicalizer);
+            }
+        }
+        return StringDeserializer.instance;
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (canonicalizer != null && p.hasToken(JsonToken.VALUE_STRING)) {
+            return canonicalizer.canonicalize(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        }
+        return StringDeserializer.instance.deserialize(p, ctxt);
+    }
+}
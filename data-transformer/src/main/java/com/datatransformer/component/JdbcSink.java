@@ -0,0 +1,255 @@
+package com.datatransformer.component;
+
+import com.datatransformer.component.TargetUserColumns.Column;
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.interfaces.Sink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Upserts TargetUser records into a database table, one column per TargetUser property (named as in the JSON
+ * output) keyed by {@code Id}. Records are split by a hash of their id across parallel writers, each sending
+ * batches of prepared statements on a connection of its own and committing per batch. The same id always goes
+ * to the same writer, so later records for an id win, and because rows are upserted a retried file rewrites
+ * its rows instead of duplicating them. Users without an id have no key to upsert on; they are skipped and
+ * counted in {@code users.jdbc.skipped}. Writers run on a thread pool shared by all files for the lifetime of the
+ * sink.
+ */
+@Component
+@ConditionalOnProperty(name = "pipeline.sink.type", havingValue = "jdbc")
+public class JdbcSink implements Sink<TargetUser, DataSource> {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcSink.class);
+    private static final String KEY_COLUMN = "Id";
+
+    // A table name, optionally schema-qualified; it is part of the SQL, so anything else is rejected
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private static final AtomicInteger writerThreads = new AtomicInteger();
+
+    // Cached, so every file in progress can run all of its writers; idle writer threads are released
+    private final ExecutorService executor = Executors.newCachedThreadPool(
+            task -> new Thread(task, "jdbc-writer-" + writerThreads.incrementAndGet()));
+    private final Counter skippedCounter;
+
+    @Value("${pipeline.sink.jdbc.table:users}")
+    private String table = "users";
+
+    // Records per executeBatch and commit
+    @Value("${pipeline.sink.jdbc.batch-size:1000}")
+    private int batchSize = 1000;
+
+    // Parallel writers per file, each on its own connection
+    @Value("${pipeline.sink.jdbc.writers:4}")
+    private int writers = 4;
+
+    @Value("${pipeline.sink.jdbc.create-table:true}")
+    private boolean createTable = true;
+
+    private volatile String upsertSql;
+
+    public JdbcSink(MeterRegistry meterRegistry) {
+        this.skippedCounter = meterRegistry.counter("users.jdbc.skipped");
+    }
+
+    @PostConstruct
+    public void validateTable() {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalStateException("pipeline.sink.jdbc.table must be a table name, optionally with a schema"
+                    + " (letters, digits and underscores): " + table);
+        }
+    }
+
+    // Writes finish before the orchestrator that calls this sink is destroyed; this only ends idle threads
+    @PreDestroy
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void write(Stream<TargetUser> users, DataSource dataSource) throws IOException {
+        String sql = prepare(dataSource);
+        List<Future<?>> inFlight = new ArrayList<>(writers);
+        try {
+            // Each writer has one batch in flight while the next one fills, so memory stays at two batches per
+            // writer and the writers send batches while this thread reads and transforms
+            List<List<TargetUser>> filling = new ArrayList<>(writers);
+            for (int writer = 0; writer < writers; writer++) {
+                filling.add(new ArrayList<>(batchSize));
+                inFlight.add(null);
+            }
+            long skipped = 0;
+            Iterator<TargetUser> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                TargetUser user = iterator.next();
+                if (user.id() == null) {
+                    skipped++;
+                    continue;
+                }
+                int writer = Math.floorMod(user.id().hashCode(), writers);
+                List<TargetUser> batch = filling.get(writer);
+                batch.add(user);
+                if (batch.size() == batchSize) {
+                    await(inFlight.get(writer));
+                    inFlight.set(writer, executor.submit(() -> upsert(dataSource, sql, batch)));
+                    filling.set(writer, new ArrayList<>(batchSize));
+                }
+            }
+            for (int writer = 0; writer < writers; writer++) {
+                List<TargetUser> batch = filling.get(writer);
+                if (!batch.isEmpty()) {
+                    await(inFlight.get(writer));
+                    inFlight.set(writer, executor.submit(() -> upsert(dataSource, sql, batch)));
+                }
+            }
+            for (Future<?> future : inFlight) {
+                await(future);
+            }
+            if (skipped > 0) {
+                skippedCounter.increment(skipped);
+                logger.warn("Skipped {} users without an Id, which is the primary key of {}", skipped, table);
+            }
+        } finally {
+            // A failed file leaves no writer of its own running
+            for (Future<?> future : inFlight) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    // Creates the table if configured and builds the upsert statement for the database, once per sink
+    private String prepare(DataSource dataSource) throws IOException {
+        String sql = upsertSql;
+        if (sql != null) {
+            return sql;
+        }
+        synchronized (this) {
+            if (upsertSql == null) {
+                try (Connection connection = dataSource.getConnection()) {
+                    DatabaseMetaData metaData = connection.getMetaData();
+                    String quote = metaData.getIdentifierQuoteString().trim();
+                    if (createTable) {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute(createTableSql(quote));
+                        }
+                    }
+                    upsertSql = buildUpsertSql(metaData.getDatabaseProductName(), quote);
+                } catch (SQLException e) {
+                    throw new IOException("Failed to prepare table " + table, e);
+                }
+            }
+            return upsertSql;
+        }
+    }
+
+    private Void upsert(DataSource dataSource, String sql, List<TargetUser> batch) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (TargetUser user : batch) {
+                    for (int index = 0; index < TargetUserColumns.COLUMNS.size(); index++) {
+                        Column column = TargetUserColumns.COLUMNS.get(index);
+                        Object value = column.accessor().apply(user);
+                        if (value == null) {
+                            statement.setNull(index + 1, column.isString() ? Types.VARCHAR : Types.BOOLEAN);
+                        } else if (column.isString()) {
+                            statement.setString(index + 1, (String) value);
+                        } else {
+                            statement.setBoolean(index + 1, (Boolean) value);
+                        }
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        return null;
+    }
+
+    private void await(Future<?> future) throws IOException {
+        if (future == null) {
+            return;
+        }
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing to " + table, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to upsert into " + table, e.getCause());
+        }
+    }
+
+    private String createTableSql(String quote) {
+        return TargetUserColumns.COLUMNS.stream()
+                .map(column -> quote + column.name() + quote + " " + (column.name().equals(KEY_COLUMN)
+                        ? "VARCHAR(255) PRIMARY KEY" : column.isString() ? "VARCHAR(1024)" : "BOOLEAN"))
+                .collect(Collectors.joining(", ", "CREATE TABLE IF NOT EXISTS " + table + " (", ")"));
+    }
+
+    // Upsert syntax differs per database; anything not recognised gets standard SQL MERGE
+    private String buildUpsertSql(String databaseProduct, String quote) {
+        List<String> columns = TargetUserColumns.COLUMNS.stream().map(column -> quote + column.name() + quote).toList();
+        String key = quote + KEY_COLUMN + quote;
+        List<String> updated = columns.stream().filter(column -> !column.equals(key)).toList();
+        String columnList = String.join(", ", columns);
+        String parameters = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+        String product = databaseProduct.toLowerCase(Locale.ROOT);
+        if (product.contains("h2")) {
+            return "MERGE INTO " + table + " (" + columnList + ") KEY (" + key + ") VALUES (" + parameters + ")";
+        }
+        if (product.contains("postgres") || product.contains("sqlite")) {
+            return "INSERT INTO " + table + " (" + columnList + ") VALUES (" + parameters + ") ON CONFLICT (" + key
+                    + ") DO UPDATE SET " + updated.stream().map(column -> column + " = EXCLUDED." + column)
+                            .collect(Collectors.joining(", "));
+        }
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            return "INSERT INTO " + table + " (" + columnList + ") VALUES (" + parameters
+                    + ") ON DUPLICATE KEY UPDATE " + updated.stream().map(column -> column + " = VALUES(" + column + ")")
+                            .collect(Collectors.joining(", "));
+        }
+        return "MERGE INTO " + table + " t USING (VALUES (" + parameters + ")) AS s (" + columnList + ") ON t." + key
+                + " = s." + key + " WHEN MATCHED THEN UPDATE SET "
+                + updated.stream().map(column -> column + " = s." + column).collect(Collectors.joining(", "))
+                + " WHEN NOT MATCHED THEN INSERT (" + columnList + ") VALUES ("
+                + columns.stream().map(column -> "s." + column).collect(Collectors.joining(", ")) + ")";
+    }
+}
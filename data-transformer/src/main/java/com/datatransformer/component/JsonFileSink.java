@@ -1,38 +1,150 @@
 package com.datatransformer.component;
 
-import com.datatransformer.pipeline.interfaces.Sink;
+import com.datatransformer.pipeline.interfaces.FileSink;
 import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.Compression;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.stream.Stream;
 
 @Component
-public class JsonFileSink implements Sink<TargetUser, Path> {
+@ConditionalOnProperty(name = "pipeline.sink.type", havingValue = "json", matchIfMissing = true)
+public class JsonFileSink implements FileSink<TargetUser> {
 
-    private final ObjectMapper objectMapper;
+    static final char RECORD_SEPARATOR = '\n';
+
+    private final ObjectWriter objectWriter;
+    private final ThreadLocal<ByteArrayOutputStream> recordBuffers =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(1024));
+
+    // Size of the output buffer in front of the file channel
+    @Value("${pipeline.sink.buffer-size:262144}")
+    private int bufferSize = 256 * 1024;
+
+    // none: leave flushing to the OS; on_close: force written data to disk before the file counts as done
+    @Value("${pipeline.sink.fsync:none}")
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+
+    // Output compression is chosen by the output file extension (.gz, .zst); a negative level uses the codec default
+    @Value("${pipeline.output.compression.level:-1}")
+    private int compressionLevel = -1;
+
+    // zstd worker threads compressing each file in parallel (0 = compress on the writing thread)
+    @Value("${pipeline.output.compression.workers:0}")
+    private int compressionWorkers;
 
     public JsonFileSink(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this.objectWriter = recordWriter(objectMapper);
+    }
+
+    // One record per line (NDJSON); flushing after every value would defeat the buffer
+    static ObjectWriter recordWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(TargetUser.class)
+                .with(new MinimalPrettyPrinter(String.valueOf(RECORD_SEPARATOR)))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public enum FsyncPolicy {
+        NONE,
+        ON_CLOSE
+    }
+
+    @Override
+    public String fileExtension(Compression compression) {
+        return ".json" + compression.extension();
+    }
+
+    @Override
+    public boolean supportsAppend() {
+        return true;
     }
 
     @Override
     public void write(Stream<TargetUser> data, Path output) throws IOException {
-        try (var writer = new java.io.BufferedWriter(
-                new java.io.FileWriter(output.toFile()))) {
-            data.forEach(user -> {
+        write(data, output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    // Appended records start a new gzip member or zstd frame; decoders read concatenated ones as one stream
+    @Override
+    public void append(Stream<TargetUser> data, Path output) throws IOException {
+        write(data, output, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    private void write(Stream<TargetUser> data, Path output, OpenOption... options) {
+        Compression compression = Compression.fromFileName(output.getFileName().toString());
+        try (OutputStream out = compression.compress(
+                new BufferedOutputStream(Files.newOutputStream(output, options), bufferSize), compressionLevel,
+                compressionWorkers)) {
+            if (data.isParallel()) {
+                writeParallel(data, out);
+            } else {
+                writeSequential(data, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Forced after close, so compressed output includes the codec trailer
+        if (fsyncPolicy == FsyncPolicy.ON_CLOSE) {
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void writeSequential(Stream<TargetUser> data, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectWriter.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            SequenceWriter sequenceWriter = objectWriter.writeValues(generator);
+            long written = data.mapToLong(user -> {
                 try {
-                    writer.write(objectMapper.writeValueAsString(user));
-                    writer.newLine();
+                    sequenceWriter.write(user);
+                    return 1;
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
-            });
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+            }).sum();
+            sequenceWriter.close();
+            // The pretty printer only separates records; terminate the last line as well
+            if (written > 0) {
+                generator.writeRaw(RECORD_SEPARATOR);
+            }
         }
     }
+
+    // Each thread serializes into its own buffer; the lock is held only to append the finished line
+    private void writeParallel(Stream<TargetUser> data, OutputStream out) {
+        data.forEach(user -> {
+            ByteArrayOutputStream buffer = recordBuffers.get();
+            buffer.reset();
+            try {
+                objectWriter.writeValue(buffer, user);
+                buffer.write(RECORD_SEPARATOR);
+                synchronized (out) {
+                    buffer.writeTo(out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 }
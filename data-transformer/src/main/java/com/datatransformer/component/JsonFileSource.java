@@ -1,83 +1,108 @@
 package com.datatransformer.component;
 
-import com.datatransformer.pipeline.interfaces.Source;
+import com.datatransformer.pipeline.interfaces.SeekableSource;
 import com.datatransformer.model.RawUser;
+import com.datatransformer.pipeline.Compression;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @Component
-public class JsonFileSource implements Source<RawUser, Path> {
+@ConditionalOnProperty(name = "pipeline.source.type", havingValue = "json", matchIfMissing = true)
+public class JsonFileSource implements SeekableSource<RawUser> {
 
     private final ObjectMapper objectMapper;
 
+    // stream: buffered FileInputStream; mmap: parse straight from a read-only mapping of the file
+    @Value("${pipeline.source.input-mode:stream}")
+    private InputMode inputMode = InputMode.STREAM;
+
     public JsonFileSource(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
 
+    public enum InputMode {
+        STREAM,
+        MMAP
+    }
+
     @Override
     public Stream<RawUser> read(Path input) throws IOException {
-        JsonParser parser = objectMapper.getFactory().createParser(input.toFile());
+        JsonParser parser = createParser(input);
         try {
-            // Advance to the "value" array
-            if (parser.nextToken() != JsonToken.START_OBJECT) {
-                throw new IllegalStateException("Expected content to be an object");
+            if (!moveToValueArray(parser)) {
+                parser.close();
+                return Stream.empty();
             }
 
-            while (parser.nextToken() != JsonToken.END_OBJECT) {
-                String fieldName = parser.currentName();
-                if ("value".equals(fieldName)) {
-                    parser.nextToken(); // Move to START_ARRAY
-                    if (parser.currentToken() != JsonToken.START_ARRAY) {
-                        throw new IllegalStateException("Expected 'value' to be an array");
-                    }
+            Iterator<RawUser> iterator = new Iterator<>() {
+                // hasNext() must be idempotent: splitting a parallel stream may call it repeatedly
+                private boolean advanced;
+                private boolean exhausted;
 
-                    Iterator<RawUser> iterator = new Iterator<>() {
-                        @Override
-                        public boolean hasNext() {
-                            try {
-                                return parser.nextToken() != JsonToken.END_ARRAY;
-                            } catch (IOException e) {
-                                throw new UncheckedIOException(e);
-                            }
+                @Override
+                public boolean hasNext() {
+                    if (!advanced && !exhausted) {
+                        try {
+                            exhausted = parser.nextToken() == JsonToken.END_ARRAY;
+                            advanced = true;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
                         }
+                    }
+                    return !exhausted;
+                }
 
-                        @Override
-                        public RawUser next() {
-                            try {
-                                return objectMapper.readValue(parser, RawUser.class);
-                            } catch (IOException e) {
-                                throw new UncheckedIOException(e);
-                            }
-                        }
-                    };
-
-                    return StreamSupport.stream(
-                            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED),
-                            false).onClose(() -> {
-                                try {
-                                    parser.close();
-                                } catch (IOException e) {
-                                    throw new UncheckedIOException(e);
-                                }
-                            });
-                } else {
-                    parser.nextToken(); // Skip value
-                    parser.skipChildren();
+                @Override
+                public RawUser next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    advanced = false;
+                    try {
+                        return objectMapper.readValue(parser, RawUser.class);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
                 }
-            }
-            parser.close();
-            return Stream.empty();
+            };
+
+            return StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED),
+                    false).onClose(() -> {
+                        try {
+                            parser.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
         } catch (Exception e) {
             try {
                 parser.close();
@@ -87,4 +112,142 @@ public class JsonFileSource implements Source<RawUser, Path> {
             throw e;
         }
     }
+
+    @Override
+    public Cursor<RawUser> open(Path input, long offset) throws IOException {
+        if (offset == 0) {
+            JsonParser parser = createParser(input);
+            try {
+                return new RecordCursor(parser, moveToValueArray(parser), 0, 0);
+            } catch (IOException | RuntimeException e) {
+                parser.close();
+                throw e;
+            }
+        }
+
+        // Resume inside the "value" array: drop the separator after the last record read and parse the rest
+        // as if it were a new array, translating the parser's offsets back to positions in the input
+        Compression compression = Compression.fromFileName(input.getFileName().toString());
+        InputStream raw = compression == Compression.NONE
+                ? Channels.newInputStream(FileChannel.open(input, StandardOpenOption.READ).position(offset))
+                : compression.decompress(Files.newInputStream(input));
+        try {
+            if (compression != Compression.NONE) {
+                raw.skipNBytes(offset);
+            }
+            PushbackInputStream in = new PushbackInputStream(new BufferedInputStream(raw), 1);
+            long start = offset;
+            int next;
+            while ((next = in.read()) != -1 && Character.isWhitespace(next)) {
+                start++;
+            }
+            if (next == ',') {
+                start++;
+            } else if (next != -1) {
+                in.unread(next);
+            }
+            JsonParser parser = objectMapper.getFactory().createParser(
+                    new SequenceInputStream(new ByteArrayInputStream(new byte[] { '[' }), in));
+            parser.nextToken();
+            return new RecordCursor(parser, true, offset, start - 1);
+        } catch (IOException | RuntimeException e) {
+            raw.close();
+            throw e;
+        }
+    }
+
+    // Leaves the parser on the START_ARRAY of "value"; false if the document has no "value" field
+    private static boolean moveToValueArray(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalStateException("Expected content to be an object");
+        }
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+            if ("value".equals(parser.currentName())) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IllegalStateException("Expected 'value' to be an array");
+                }
+                return true;
+            }
+            parser.nextToken(); // Skip value
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private final class RecordCursor implements Cursor<RawUser> {
+        private final JsonParser parser;
+        // Input position of the parser's byte 0
+        private final long base;
+        private boolean exhausted;
+        private long offset;
+
+        RecordCursor(JsonParser parser, boolean hasValueArray, long offset, long base) {
+            this.parser = parser;
+            this.exhausted = !hasValueArray;
+            this.offset = offset;
+            this.base = base;
+        }
+
+        @Override
+        public RawUser next() throws IOException {
+            if (exhausted) {
+                return null;
+            }
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                exhausted = true;
+                return null;
+            }
+            RawUser user = objectMapper.readValue(parser, RawUser.class);
+            offset = base + parser.currentLocation().getByteOffset();
+            return user;
+        }
+
+        @Override
+        public long offset() {
+            return offset;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    // Compressed files are always decompressed as a stream; mapping only applies to plain files
+    private JsonParser createParser(Path input) throws IOException {
+        Compression compression = Compression.fromFileName(input.getFileName().toString());
+        if (compression != Compression.NONE) {
+            InputStream in = Files.newInputStream(input);
+            try {
+                return objectMapper.getFactory().createParser(compression.decompress(in));
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+        return inputMode == InputMode.MMAP ? createMappedParser(input)
+                : objectMapper.getFactory().createParser(input.toFile());
+    }
+
+    // Files up to 2 GB are mapped once and fed whole to the non-blocking ByteBuffer parser, which reads the
+    // mapping directly. Larger files are mapped in windows and chained through a blocking parser.
+    private JsonParser createMappedParser(Path input) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= Integer.MAX_VALUE) {
+                JsonParser parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+                ByteBufferFeeder feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+                feeder.feedInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                feeder.endOfInput();
+                return parser;
+            }
+            List<InputStream> windows = new ArrayList<>();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                long length = Math.min(Integer.MAX_VALUE, size - position);
+                windows.add(new ByteBufferBackedInputStream(channel.map(FileChannel.MapMode.READ_ONLY, position, length)));
+            }
+            return objectMapper.getFactory().createParser(new SequenceInputStream(Collections.enumeration(windows)));
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.RawUser;
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.MappingCompiler;
+import com.datatransformer.pipeline.MappingSpec;
+import com.datatransformer.pipeline.interfaces.Transformer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Transforms users with a declarative {@link MappingSpec} instead of hand-written code. The spec is read and
+ * compiled once at startup, so a bad mapping fails the application before any file is processed.
+ */
+@Component
+@ConditionalOnProperty(name = "pipeline.transformer.type", havingValue = "mapping")
+public class MappedUserTransformer implements Transformer<RawUser, TargetUser> {
+
+    private final Transformer<RawUser, TargetUser> compiled;
+
+    public MappedUserTransformer(ResourceLoader resourceLoader,
+            @Value("${pipeline.transformer.mapping:classpath:mappings/user.yaml}") String mapping) {
+        try (InputStream input = resourceLoader.getResource(mapping).getInputStream()) {
+            this.compiled = MappingCompiler.compile(MappingSpec.parse(input), RawUser.class, TargetUser.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read mapping " + mapping, e);
+        }
+    }
+
+    @Override
+    public TargetUser transform(RawUser input) {
+        return compiled.transform(input);
+    }
+}
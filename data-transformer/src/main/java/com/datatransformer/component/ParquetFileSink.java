@@ -0,0 +1,154 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.Compression;
+import com.datatransformer.pipeline.interfaces.FileSink;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Writes TargetUser records as Parquet, one optional column per TargetUser property (named as in the JSON output).
+ * Rows go straight into the current row group, which is flushed once it reaches the configured size.
+ */
+@Component
+@ConditionalOnProperty(name = "pipeline.sink.type", havingValue = "parquet")
+public class ParquetFileSink implements FileSink<TargetUser> {
+
+    static final MessageType SCHEMA = buildSchema();
+
+    // Row group size in bytes; a row group is buffered in memory until it is flushed
+    @Value("${pipeline.sink.parquet.row-group-size:134217728}")
+    private long rowGroupSize = ParquetWriter.DEFAULT_BLOCK_SIZE;
+
+    @Value("${pipeline.sink.parquet.page-size:1048576}")
+    private int pageSize = ParquetWriter.DEFAULT_PAGE_SIZE;
+
+    @Value("${pipeline.sink.parquet.compression:snappy}")
+    private CompressionCodecName compressionCodec = CompressionCodecName.SNAPPY;
+
+    // Low-cardinality columns that get dictionary encoding; all other columns are plain encoded
+    @Value("${pipeline.sink.parquet.dictionary-columns:type,location}")
+    private Set<String> dictionaryColumns = Set.of("type", "location");
+
+    @Override
+    public String fileExtension(Compression compression) {
+        // Parquet compresses pages itself, so the file-level compression is not applied
+        return ".parquet";
+    }
+
+    @Override
+    public void write(Stream<TargetUser> data, Path output) throws IOException {
+        try (ParquetWriter<TargetUser> writer = newWriter(new LocalOutputFile(output))) {
+            // Parallel streams share the single writer, so writes are serialized on it
+            data.forEach(user -> {
+                try {
+                    synchronized (writer) {
+                        writer.write(user);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ParquetWriter<TargetUser> newWriter(OutputFile file) throws IOException {
+        Builder builder = new Builder(file)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .withRowGroupSize(rowGroupSize)
+                .withPageSize(pageSize)
+                .withCompressionCodec(compressionCodec)
+                .withDictionaryEncoding(false);
+        for (String column : dictionaryColumns) {
+            builder = builder.withDictionaryEncoding(column, true);
+        }
+        return builder.build();
+    }
+
+    private static MessageType buildSchema() {
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (TargetUserColumns.Column column : TargetUserColumns.COLUMNS) {
+            if (column.isString()) {
+                builder.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(column.name());
+            } else {
+                builder.optional(PrimitiveTypeName.BOOLEAN).named(column.name());
+            }
+        }
+        return builder.named("TargetUser");
+    }
+
+    private static final class Builder extends ParquetWriter.Builder<TargetUser, Builder> {
+        Builder(OutputFile file) {
+            super(file);
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<TargetUser> getWriteSupport(Configuration conf) {
+            return new TargetUserWriteSupport();
+        }
+    }
+
+    // Writes fields directly to the record consumer; null values are left out of the optional columns
+    private static final class TargetUserWriteSupport extends WriteSupport<TargetUser> {
+        private RecordConsumer consumer;
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(SCHEMA, new HashMap<>());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(TargetUser user) {
+            consumer.startMessage();
+            for (int index = 0; index < TargetUserColumns.COLUMNS.size(); index++) {
+                TargetUserColumns.Column column = TargetUserColumns.COLUMNS.get(index);
+                Object value = column.accessor().apply(user);
+                if (value == null) {
+                    continue;
+                }
+                consumer.startField(column.name(), index);
+                if (column.isString()) {
+                    consumer.addBinary(Binary.fromString((String) value));
+                } else {
+                    consumer.addBoolean((Boolean) value);
+                }
+                consumer.endField(column.name(), index);
+            }
+            consumer.endMessage();
+        }
+    }
+}
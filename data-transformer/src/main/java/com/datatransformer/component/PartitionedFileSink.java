@@ -0,0 +1,291 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.Compression;
+import com.datatransformer.pipeline.interfaces.FileSink;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Writes TargetUser records as NDJSON split across partition files, so downstream loaders can divide one large
+ * input evenly. The output path is a directory, named as the single output file would have been, holding
+ * {@code part-<partition>-<sequence>} files. Records are routed by a hash of their key, or by ranges of it, and a
+ * partition rolls over to its next file once it reaches the configured records or bytes. Every partition has a
+ * buffered writer of its own, so producers of a parallel stream only wait for each other on the same partition.
+ */
+@Component
+@ConditionalOnProperty(name = "pipeline.sink.type", havingValue = "partitioned")
+public class PartitionedFileSink implements FileSink<TargetUser> {
+
+    private final ObjectWriter objectWriter;
+
+    @Value("${pipeline.sink.partition.key:id}")
+    private PartitionKey key = PartitionKey.ID;
+
+    @Value("${pipeline.sink.partition.strategy:hash}")
+    private Strategy strategy = Strategy.HASH;
+
+    // Partitions with the hash strategy, and with the range strategy when ids are split evenly
+    @Value("${pipeline.sink.partition.count:8}")
+    private int count = 8;
+
+    // Sorted lower bounds of the second and later ranges; empty splits ids evenly by their leading hex digits
+    @Value("${pipeline.sink.partition.boundaries:}")
+    private List<String> boundaries = List.of();
+
+    // Records and uncompressed bytes per file before a partition starts its next file (0 = no limit)
+    @Value("${pipeline.sink.partition.max-records:0}")
+    private long maxRecords;
+
+    @Value("${pipeline.sink.partition.max-bytes:0}")
+    private long maxBytes;
+
+    // Output buffer per partition, so memory grows with the partition count
+    @Value("${pipeline.sink.partition.buffer-size:65536}")
+    private int bufferSize = 64 * 1024;
+
+    @Value("${pipeline.sink.fsync:none}")
+    private JsonFileSink.FsyncPolicy fsyncPolicy = JsonFileSink.FsyncPolicy.NONE;
+
+    @Value("${pipeline.output.compression.level:-1}")
+    private int compressionLevel = -1;
+
+    public PartitionedFileSink(ObjectMapper objectMapper) {
+        this.objectWriter = JsonFileSink.recordWriter(objectMapper);
+    }
+
+    @PostConstruct
+    public void validateCount() {
+        if (count < 1) {
+            throw new IllegalStateException("pipeline.sink.partition.count must be at least 1: " + count);
+        }
+    }
+
+    public enum PartitionKey {
+        ID(TargetUser::id),
+        LOCATION(TargetUser::location);
+
+        private final Function<TargetUser, String> accessor;
+
+        PartitionKey(Function<TargetUser, String> accessor) {
+            this.accessor = accessor;
+        }
+    }
+
+    public enum Strategy {
+        HASH,
+        RANGE
+    }
+
+    @Override
+    public String fileExtension(Compression compression) {
+        return ".json" + compression.extension();
+    }
+
+    @Override
+    public void write(Stream<TargetUser> data, Path output) throws IOException {
+        Compression compression = Compression.fromFileName(output.getFileName().toString());
+        List<String> ranges = strategy == Strategy.RANGE ? ranges() : List.of();
+        int partitionCount = strategy == Strategy.RANGE ? ranges.size() + 1 : count;
+        ToIntFunction<String> partitioner = strategy == Strategy.RANGE ? partitionKey -> range(ranges, partitionKey)
+                : partitionKey -> Math.floorMod(partitionKey.hashCode(), partitionCount);
+
+        // A retry starts over; parts of an earlier attempt would otherwise be mixed into this one
+        delete(output);
+        Files.createDirectories(output);
+        Partition[] partitions = IntStream.range(0, partitionCount)
+                .mapToObj(index -> new Partition(output, index, compression))
+                .toArray(Partition[]::new);
+        try {
+            data.forEach(user -> {
+                String partitionKey = key.accessor.apply(user);
+                partitions[partitionKey == null ? 0 : partitioner.applyAsInt(partitionKey)].write(user);
+            });
+        } catch (RuntimeException e) {
+            try {
+                close(partitions);
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+        close(partitions);
+
+        if (fsyncPolicy == JsonFileSink.FsyncPolicy.ON_CLOSE) {
+            for (Partition partition : partitions) {
+                for (Path file : partition.files) {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        channel.force(false);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<String> ranges() {
+        if (!boundaries.isEmpty()) {
+            for (int index = 1; index < boundaries.size(); index++) {
+                if (boundaries.get(index - 1).compareTo(boundaries.get(index)) >= 0) {
+                    throw new IllegalStateException("pipeline.sink.partition.boundaries must be sorted: " + boundaries);
+                }
+            }
+            return boundaries;
+        }
+        if (key != PartitionKey.ID) {
+            throw new IllegalStateException("pipeline.sink.partition.boundaries must be set to range-partition by "
+                    + key.name().toLowerCase(Locale.ROOT));
+        }
+        // Ids are random lowercase GUIDs, so even splits of their first four hex digits give even partitions
+        return IntStream.range(1, count)
+                .mapToObj(index -> String.format("%04x", index * 0x10000L / count))
+                .toList();
+    }
+
+    // Keys below the first boundary go to partition 0, keys from boundary i up to the next one to partition i + 1
+    private static int range(List<String> ranges, String partitionKey) {
+        int index = Collections.binarySearch(ranges, partitionKey);
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+
+    private static void close(Partition[] partitions) throws IOException {
+        IOException failure = null;
+        for (Partition partition : partitions) {
+            try {
+                partition.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void delete(Path output) throws IOException {
+        if (!Files.exists(output)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(output)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // One partition's current file, opened on its first record so empty partitions leave no file behind
+    private final class Partition {
+
+        private final Path directory;
+        private final int index;
+        private final Compression compression;
+        private final List<Path> files = new ArrayList<>();
+
+        private CountingOutputStream counter;
+        private JsonGenerator generator;
+        private SequenceWriter writer;
+        private long records;
+
+        private Partition(Path directory, int index, Compression compression) {
+            this.directory = directory;
+            this.index = index;
+            this.compression = compression;
+        }
+
+        synchronized void write(TargetUser user) {
+            try {
+                if (writer == null) {
+                    open();
+                }
+                writer.write(user);
+                records++;
+                if ((maxRecords > 0 && records >= maxRecords) || (maxBytes > 0 && bytes() >= maxBytes)) {
+                    close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void open() throws IOException {
+            Path file = directory.resolve(String.format("part-%05d-%05d", index, files.size())
+                    + fileExtension(compression));
+            files.add(file);
+            OutputStream out = compression.compress(
+                    new BufferedOutputStream(Files.newOutputStream(file), bufferSize), compressionLevel, 0);
+            counter = new CountingOutputStream(out);
+            generator = objectWriter.getFactory().createGenerator(counter, JsonEncoding.UTF8);
+            writer = objectWriter.writeValues(generator);
+            records = 0;
+        }
+
+        // Uncompressed bytes, including those still held by the generator
+        private long bytes() {
+            return counter.count + Math.max(0, generator.getOutputBuffered());
+        }
+
+        synchronized void close() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            try (JsonGenerator closing = generator) {
+                writer.close();
+                closing.writeRaw(JsonFileSink.RECORD_SEPARATOR);
+            } finally {
+                writer = null;
+                generator = null;
+                counter = null;
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.RawUser;
+import com.datatransformer.pipeline.Compression;
+import com.datatransformer.pipeline.interfaces.SeekableSource;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the top-level "value" array like {@link JsonFileSource}, but first pre-scans the memory-mapped file
+ * for element boundaries and carves the array into byte-range chunks. Each chunk gets its own parser,
+ * so the returned stream splits for real when made {@code parallel()}.
+ */
+@Component
+@ConditionalOnProperty(name = "pipeline.source.type", havingValue = "splittable")
+public class SplittableJsonFileSource implements SeekableSource<RawUser> {
+
+    private static final int SCAN_WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final byte[] ARRAY_START = { '[' };
+    private static final byte[] ARRAY_END = { ']' };
+
+    private final ObjectMapper objectMapper;
+
+    // Minimum number of bytes per chunk; a chunk always ends on an element boundary
+    @Value("${pipeline.source.split.chunk-size:4194304}")
+    private int chunkSize = 4 * 1024 * 1024;
+
+    public SplittableJsonFileSource(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Resuming reads sequentially from the offset, exactly like JsonFileSource
+    @Override
+    public Cursor<RawUser> open(Path input, long offset) throws IOException {
+        return new JsonFileSource(objectMapper).open(input, offset);
+    }
+
+    @Override
+    public Stream<RawUser> read(Path input) throws IOException {
+        // Compressed bytes cannot be split by offset, so those files are read sequentially
+        if (Compression.fromFileName(input.getFileName().toString()) != Compression.NONE) {
+            return new JsonFileSource(objectMapper).read(input);
+        }
+        FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+        try {
+            long arrayStart = findValueArray(input);
+            if (arrayStart < 0) {
+                channel.close();
+                return Stream.empty();
+            }
+            Chunks chunks = scanChunks(channel, arrayStart);
+            return StreamSupport.stream(new ChunkSpliterator(channel, chunks, 0, chunks.count), false)
+                    .onClose(() -> {
+                        try {
+                            channel.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (Exception e) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                e.addSuppressed(ex);
+            }
+            throw e;
+        }
+    }
+
+    // Returns the byte offset just past the '[' of the "value" array, or -1 if there is none
+    private long findValueArray(Path input) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Expected content to be an object");
+            }
+            while (parser.nextToken() != JsonToken.END_OBJECT) {
+                String fieldName = parser.currentName();
+                if ("value".equals(fieldName)) {
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        throw new IllegalStateException("Expected 'value' to be an array");
+                    }
+                    return parser.currentTokenLocation().getByteOffset() + 1;
+                }
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return -1;
+        }
+    }
+
+    // Single pass over the array bytes tracking nesting depth, strings and escapes.
+    // Elements start at depth 0; a new chunk is started once the current one reaches chunkSize bytes.
+    private Chunks scanChunks(FileChannel channel, long arrayStart) throws IOException {
+        Chunks chunks = new Chunks();
+        long size = channel.size();
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        long chunkStart = -1;
+        long lastElementEnd = -1;
+        int chunkRecords = 0;
+
+        for (long windowStart = arrayStart; windowStart < size; windowStart += SCAN_WINDOW_SIZE) {
+            int windowLength = (int) Math.min(SCAN_WINDOW_SIZE, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            for (int i = 0; i < windowLength; i++) {
+                byte b = window.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                long position = windowStart + i;
+                switch (b) {
+                    case '"' -> {
+                        if (depth == 0) {
+                            throw new IllegalStateException("Expected 'value' elements to be objects at byte " + position);
+                        }
+                        inString = true;
+                    }
+                    case '{', '[' -> {
+                        if (depth == 0) {
+                            if (b == '[') {
+                                throw new IllegalStateException("Expected 'value' elements to be objects at byte " + position);
+                            }
+                            if (chunkStart < 0) {
+                                chunkStart = position;
+                            } else if (position - chunkStart >= chunkSize) {
+                                chunks.add(chunkStart, lastElementEnd, chunkRecords);
+                                chunkStart = position;
+                                chunkRecords = 0;
+                            }
+                            chunkRecords++;
+                        }
+                        depth++;
+                    }
+                    case '}', ']' -> {
+                        if (depth == 0) {
+                            if (b == '}') {
+                                throw new IllegalStateException("Unbalanced '}' in 'value' array at byte " + position);
+                            }
+                            if (chunkStart >= 0) {
+                                chunks.add(chunkStart, lastElementEnd, chunkRecords);
+                            }
+                            return chunks;
+                        }
+                        depth--;
+                        if (depth == 0) {
+                            lastElementEnd = position + 1;
+                        }
+                    }
+                    case ',', ' ', '\t', '\r', '\n' -> {
+                        // Separators between elements, or inside an element
+                    }
+                    default -> {
+                        if (depth == 0) {
+                            throw new IllegalStateException("Expected 'value' elements to be objects at byte " + position);
+                        }
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Unterminated 'value' array");
+    }
+
+    private static final class Chunks {
+        private long[] starts = new long[16];
+        private long[] ends = new long[16];
+        private int[] records = new int[16];
+        private int count;
+
+        void add(long start, long end, int recordCount) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+                records = Arrays.copyOf(records, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            records[count] = recordCount;
+            count++;
+        }
+    }
+
+    private final class ChunkSpliterator implements Spliterator<RawUser> {
+        private final FileChannel channel;
+        private final Chunks chunks;
+        private int next;
+        private final int end;
+        private JsonParser parser;
+
+        ChunkSpliterator(FileChannel channel, Chunks chunks, int next, int end) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.next = next;
+            this.end = end;
+        }
+
+        private ChunkSpliterator(FileChannel channel, Chunks chunks, JsonParser parser, int next, int end) {
+            this(channel, chunks, next, end);
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super RawUser> action) {
+            try {
+                while (true) {
+                    if (parser == null) {
+                        if (next >= end) {
+                            return false;
+                        }
+                        parser = openChunk(next++);
+                    }
+                    if (parser.nextToken() == JsonToken.START_OBJECT) {
+                        action.accept(objectMapper.readValue(parser, RawUser.class));
+                        return true;
+                    }
+                    parser.close();
+                    parser = null;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Hands the leading half (including any partially read chunk) to the new spliterator, as ORDERED requires
+        @Override
+        public Spliterator<RawUser> trySplit() {
+            int remaining = end - next;
+            if (remaining < 2) {
+                return null;
+            }
+            int mid = next + remaining / 2;
+            ChunkSpliterator prefix = new ChunkSpliterator(channel, chunks, parser, next, mid);
+            parser = null;
+            next = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int i = next; i < end; i++) {
+                size += chunks.records[i];
+            }
+            return parser != null ? size + 1 : size;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+        // Parses the chunk as a standalone array: '[' + {...},{...} + ']'
+        private JsonParser openChunk(int index) throws IOException {
+            long start = chunks.starts[index];
+            MappedByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, start, chunks.ends[index] - start);
+            List<InputStream> parts = List.of(
+                    new ByteArrayInputStream(ARRAY_START),
+                    new ByteBufferBackedInputStream(slice),
+                    new ByteArrayInputStream(ARRAY_END));
+            JsonParser chunkParser = objectMapper.getFactory()
+                    .createParser(new SequenceInputStream(Collections.enumeration(parts)));
+            chunkParser.nextToken(); // Move to START_ARRAY
+            return chunkParser;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.TargetUser;
+
+import java.util.List;
+import java.util.function.Function;
+
+// TargetUser properties as columns of the table-shaped sinks, named as in the JSON output
+final class TargetUserColumns {
+
+    static final List<Column> COLUMNS = List.of(
+            Column.string("Id", TargetUser::id),
+            Column.string("external_id", TargetUser::externalId),
+            Column.string("mail", TargetUser::mail),
+            Column.string("type", TargetUser::type),
+            Column.string("location", TargetUser::location),
+            Column.bool("is_enabled", TargetUser::isEnabled),
+            Column.string("first_name", TargetUser::firstName),
+            Column.string("last_name", TargetUser::lastName),
+            Column.string("lastSignInDateTime", TargetUser::lastSignInDateTime),
+            Column.string("lastSuccessfulSignInDateTime", TargetUser::lastSuccessfulSignInDateTime),
+            Column.string("lastNonInteractiveSignInDateTime", TargetUser::lastNonInteractiveSignInDateTime));
+
+    private TargetUserColumns() {
+    }
+
+    record Column(String name, Function<TargetUser, ?> accessor, boolean isString) {
+        static Column string(String name, Function<TargetUser, String> accessor) {
+            return new Column(name, accessor, true);
+        }
+
+        static Column bool(String name, Function<TargetUser, Boolean> accessor) {
+            return new Column(name, accessor, false);
+        }
+    }
+}
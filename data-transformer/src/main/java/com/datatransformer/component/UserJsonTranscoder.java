@@ -0,0 +1,313 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.Compression;
+import com.datatransformer.service.ProcessingMode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fast path equivalent to {@link JsonFileSource} + {@link UserTransformer} + {@link JsonFileSink}: copies the
+ * mapped fields of each user token by token from the parser into reusable buffers and writes the renamed
+ * TargetUser fields straight to a generator, without RawUser, TargetUser or intermediate String instances.
+ * It replaces the configured transformer and sink, so FAST_PATH is rejected at startup unless those are the
+ * ones it is equivalent to.
+ */
+@Component
+public class UserJsonTranscoder {
+
+    // Field slots, in TargetUser component order
+    private static final int ID = 0;
+    private static final int EXTERNAL_ID = 1;
+    private static final int MAIL = 2;
+    private static final int TYPE = 3;
+    private static final int LOCATION = 4;
+    private static final int IS_ENABLED = 5;
+    private static final int FIRST_NAME = 6;
+    private static final int LAST_NAME = 7;
+    private static final int LAST_SIGN_IN = 8;
+    private static final int LAST_SUCCESSFUL_SIGN_IN = 9;
+    private static final int LAST_NON_INTERACTIVE_SIGN_IN = 10;
+    private static final int SLOT_COUNT = 11;
+
+    private static final String[] OUTPUT_NAMES = {
+            "Id",
+            "external_id",
+            "mail",
+            "type",
+            "location",
+            "is_enabled",
+            "first_name",
+            "last_name",
+            "lastSignInDateTime",
+            "lastSuccessfulSignInDateTime",
+            "lastNonInteractiveSignInDateTime"
+    };
+
+    private final ObjectMapper objectMapper;
+    private final int[] writeOrder;
+    private final SerializableString[] outputNames;
+
+    // The fast path writes what JsonFileSink would, so it honours the same output settings
+    @Value("${pipeline.sink.buffer-size:262144}")
+    private int bufferSize = 256 * 1024;
+
+    @Value("${pipeline.sink.fsync:none}")
+    private JsonFileSink.FsyncPolicy fsyncPolicy = JsonFileSink.FsyncPolicy.NONE;
+
+    @Value("${pipeline.output.compression.level:-1}")
+    private int compressionLevel = -1;
+
+    @Value("${pipeline.output.compression.workers:0}")
+    private int compressionWorkers;
+
+    @Value("${pipeline.mode:sequential}")
+    private ProcessingMode mode = ProcessingMode.SEQUENTIAL;
+
+    @Value("${pipeline.sink.type:json}")
+    private String sinkType = "json";
+
+    @Value("${pipeline.transformer.type:user}")
+    private String transformerType = "user";
+
+    public UserJsonTranscoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.writeOrder = resolveWriteOrder(objectMapper);
+        this.outputNames = new SerializableString[SLOT_COUNT];
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            outputNames[slot] = new SerializedString(OUTPUT_NAMES[slot]);
+        }
+    }
+
+    @PostConstruct
+    public void validateFastPath() {
+        if (mode != ProcessingMode.FAST_PATH) {
+            return;
+        }
+        if (!"json".equals(sinkType)) {
+            throw new IllegalStateException("pipeline.mode=fast_path always writes NDJSON files and cannot be used"
+                    + " with pipeline.sink.type=" + sinkType);
+        }
+        if (!"user".equals(transformerType)) {
+            throw new IllegalStateException("pipeline.mode=fast_path always applies the built-in user mapping and"
+                    + " cannot be used with pipeline.transformer.type=" + transformerType);
+        }
+    }
+
+    // Writes fields in the order the mapper serializes TargetUser, which puts renamed properties first
+    private static int[] resolveWriteOrder(ObjectMapper objectMapper) {
+        List<BeanPropertyDefinition> properties = objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(TargetUser.class))
+                .findProperties();
+        List<String> names = Arrays.asList(OUTPUT_NAMES);
+        int[] order = properties.stream()
+                .mapToInt(property -> names.indexOf(property.getName()))
+                .toArray();
+        if (order.length != SLOT_COUNT || Arrays.stream(order).anyMatch(slot -> slot < 0)) {
+            throw new IllegalStateException("TargetUser properties do not match the fast-path fields: "
+                    + properties.stream().map(BeanPropertyDefinition::getName).toList());
+        }
+        return order;
+    }
+
+    // Returns the number of users written
+    public long transcode(Path input, Path output) throws IOException {
+        long count = write(input, output);
+        // Forced after close, so compressed output includes the codec trailer
+        if (fsyncPolicy == JsonFileSink.FsyncPolicy.ON_CLOSE) {
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+                channel.force(false);
+            }
+        }
+        return count;
+    }
+
+    private long write(Path input, Path output) throws IOException {
+        Compression inputCompression = Compression.fromFileName(input.getFileName().toString());
+        Compression outputCompression = Compression.fromFileName(output.getFileName().toString());
+        try (InputStream in = inputCompression.decompress(Files.newInputStream(input));
+                OutputStream out = outputCompression.compress(
+                        new BufferedOutputStream(Files.newOutputStream(output), bufferSize),
+                        compressionLevel, compressionWorkers);
+                JsonParser parser = objectMapper.getFactory().createParser(in);
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // Records are separated by explicit line breaks, as JsonFileSink writes them
+            generator.setRootValueSeparator(null);
+            if (!moveToValueArray(parser)) {
+                return 0;
+            }
+            Record record = new Record();
+            long count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                    throw MismatchedInputException.from(parser, Object.class, "Expected 'value' elements to be objects");
+                }
+                record.clear();
+                readUser(parser, record);
+                record.write(generator, writeOrder, outputNames);
+                generator.writeRaw('\n');
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static boolean moveToValueArray(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalStateException("Expected content to be an object");
+        }
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            if ("value".equals(fieldName)) {
+                if (parser.currentToken() != JsonToken.START_ARRAY) {
+                    throw new IllegalStateException("Expected 'value' to be an array");
+                }
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    // Field names come from Jackson's symbol table, so switching on them does not allocate
+    private static void readUser(JsonParser parser, Record record) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "id" -> record.readString(parser, ID);
+                case "userPrincipalName" -> record.readString(parser, EXTERNAL_ID);
+                case "mail" -> record.readString(parser, MAIL);
+                case "userType" -> record.readString(parser, TYPE);
+                case "usageLocation" -> record.readString(parser, LOCATION);
+                case "accountEnabled" -> record.readBoolean(parser);
+                case "givenName" -> record.readString(parser, FIRST_NAME);
+                case "surname" -> record.readString(parser, LAST_NAME);
+                case "signInActivity" -> readSignInActivity(parser, record);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readSignInActivity(JsonParser parser, Record record) throws IOException {
+        // A repeated signInActivity replaces the earlier one, as with RawUser deserialization
+        record.clear(LAST_SIGN_IN);
+        record.clear(LAST_SUCCESSFUL_SIGN_IN);
+        record.clear(LAST_NON_INTERACTIVE_SIGN_IN);
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw MismatchedInputException.from(parser, Object.class, "Expected 'signInActivity' to be an object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "lastSignInDateTime" -> record.readString(parser, LAST_SIGN_IN);
+                case "lastSuccessfulSignInDateTime" -> record.readString(parser, LAST_SUCCESSFUL_SIGN_IN);
+                case "lastNonInteractiveSignInDateTime" -> record.readString(parser, LAST_NON_INTERACTIVE_SIGN_IN);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    // Reusable per-file field buffers; a slot with length -1 is null and omitted, like TargetUser's NON_NULL
+    private static final class Record {
+        private final char[][] values = new char[SLOT_COUNT][32];
+        private final int[] lengths = new int[SLOT_COUNT];
+        private boolean enabled;
+
+        void clear() {
+            Arrays.fill(lengths, -1);
+        }
+
+        void clear(int slot) {
+            lengths[slot] = -1;
+        }
+
+        // Scalars are copied as text, matching how Jackson coerces them into String properties
+        void readString(JsonParser parser, int slot) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                lengths[slot] = -1;
+                return;
+            }
+            if (!token.isScalarValue()) {
+                throw MismatchedInputException.from(parser, String.class,
+                        "Cannot deserialize value of type `java.lang.String` from " + token);
+            }
+            int length = parser.getTextLength();
+            if (values[slot].length < length) {
+                values[slot] = new char[Math.max(length, values[slot].length * 2)];
+            }
+            System.arraycopy(parser.getTextCharacters(), parser.getTextOffset(), values[slot], 0, length);
+            lengths[slot] = length;
+        }
+
+        void readBoolean(JsonParser parser) throws IOException {
+            switch (parser.currentToken()) {
+                case VALUE_TRUE -> setEnabled(true);
+                case VALUE_FALSE -> setEnabled(false);
+                case VALUE_NULL -> lengths[IS_ENABLED] = -1;
+                case VALUE_NUMBER_INT -> setEnabled(parser.getIntValue() != 0);
+                case VALUE_STRING -> {
+                    String text = parser.getText().trim();
+                    if (text.isEmpty() || "null".equals(text)) {
+                        lengths[IS_ENABLED] = -1;
+                    } else if ("true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text)) {
+                        setEnabled(Boolean.parseBoolean(text));
+                    } else {
+                        throw MismatchedInputException.from(parser, Boolean.class,
+                                "Cannot deserialize value of type `java.lang.Boolean` from String \"" + text + "\"");
+                    }
+                }
+                default -> throw MismatchedInputException.from(parser, Boolean.class,
+                        "Cannot deserialize value of type `java.lang.Boolean` from " + parser.currentToken());
+            }
+        }
+
+        private void setEnabled(boolean value) {
+            enabled = value;
+            lengths[IS_ENABLED] = 0;
+        }
+
+        void write(JsonGenerator generator, int[] order, SerializableString[] names) throws IOException {
+            generator.writeStartObject();
+            for (int slot : order) {
+                if (lengths[slot] < 0) {
+                    continue;
+                }
+                generator.writeFieldName(names[slot]);
+                if (slot == IS_ENABLED) {
+                    generator.writeBoolean(enabled);
+                } else {
+                    generator.writeString(values[slot], 0, lengths[slot]);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+}
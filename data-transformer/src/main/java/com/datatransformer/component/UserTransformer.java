@@ -4,9 +4,11 @@ import com.datatransformer.pipeline.interfaces.Transformer;
 import com.datatransformer.model.RawSignInActivity;
 import com.datatransformer.model.RawUser;
 import com.datatransformer.model.TargetUser;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(name = "pipeline.transformer.type", havingValue = "user", matchIfMissing = true)
 public class UserTransformer implements Transformer<RawUser, TargetUser> {
 
     @Override
@@ -0,0 +1,64 @@
+package com.datatransformer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.datatransformer.component.JdbcSink;
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.interfaces.Sink;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+// Loads users straight into a database instead of writing output files (pipeline.sink.type=jdbc)
+@Configuration
+@ConditionalOnProperty(name = "pipeline.sink.type", havingValue = "jdbc")
+public class JdbcSinkConfig {
+
+    @Value("${pipeline.sink.jdbc.url:}")
+    private String url = "";
+
+    @Value("${pipeline.sink.jdbc.username:}")
+    private String username = "";
+
+    @Value("${pipeline.sink.jdbc.password:}")
+    private String password = "";
+
+    // Connections shared by all files (0 = writers per file times the number of cores)
+    @Value("${pipeline.sink.jdbc.pool-size:0}")
+    private int poolSize;
+
+    @Value("${pipeline.sink.jdbc.writers:4}")
+    private int writers = 4;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sinkDataSource() {
+        if (url.isEmpty()) {
+            throw new IllegalStateException("pipeline.sink.jdbc.url must be set when pipeline.sink.type=jdbc");
+        }
+        try {
+            DriverManager.getDriver(url);
+        } catch (SQLException e) {
+            throw new IllegalStateException("No JDBC driver on the classpath accepts " + url
+                    + "; build with the profile for the database (e.g. -Ppostgresql) or add its driver", e);
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("pipeline-sink");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize > 0 ? poolSize : writers * Runtime.getRuntime().availableProcessors());
+        return new HikariDataSource(config);
+    }
+
+    // The orchestrator writes per input file; rows go to the database and no output file is left to publish
+    @Bean
+    public Sink<TargetUser, Path> jdbcPipelineSink(JdbcSink jdbcSink, HikariDataSource sinkDataSource) {
+        return (users, output) -> jdbcSink.write(users, sinkDataSource);
+    }
+}
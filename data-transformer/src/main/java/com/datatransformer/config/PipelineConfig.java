@@ -4,29 +4,58 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.datatransformer.component.CanonicalStringDeserializer;
+import com.datatransformer.model.RawUser;
+import com.datatransformer.pipeline.StringCanonicalizer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class PipelineConfig {
-    // Thread pool size
-    @Value("${app.thread-pool.size:50}") 
-    private int threadPoolSize;
 
-    // ObjectMapper 
-    @Bean
-    public ObjectMapper objectMapper() {
-        return new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-    }
+    // RawUser properties whose values repeat across users and are shared instead of allocated per record
+    @Value("${pipeline.intern.fields:userType,usageLocation}")
+    private List<String> internFields = List.of("userType", "usageLocation");
+
+    // Distinct values remembered per field
+    @Value("${pipeline.intern.cache-size:1024}")
+    private int internCacheSize = 1024;
 
-    // Executor service
-    @Bean(destroyMethod = "shutdown")
-    public ExecutorService executorService() {
-        return Executors.newFixedThreadPool(threadPoolSize);
+    // Registers JavaTimeModule; no model has java.time properties, so fast-start skips loading it
+    @Value("${pipeline.json.java-time:true}")
+    private boolean javaTime = true;
+
+    @Bean
+    public ObjectMapper objectMapper(MeterRegistry meterRegistry) {
+        ObjectMapper objectMapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (javaTime) {
+            objectMapper.registerModule(new JavaTimeModule());
+        }
+        if (internFields.isEmpty()) {
+            return objectMapper;
+        }
+        Map<String, StringCanonicalizer> canonicalizers = new HashMap<>();
+        for (String field : internFields) {
+            StringCanonicalizer canonicalizer = new StringCanonicalizer(internCacheSize);
+            canonicalizers.put(field, canonicalizer);
+            FunctionCounter.builder("json.strings.canonical", canonicalizer, StringCanonicalizer::hits)
+                    .tag("field", field).tag("result", "hit").register(meterRegistry);
+            FunctionCounter.builder("json.strings.canonical", canonicalizer, StringCanonicalizer::misses)
+                    .tag("field", field).tag("result", "miss").register(meterRegistry);
+            Gauge.builder("json.strings.canonical.hit.ratio", canonicalizer, StringCanonicalizer::hitRatio)
+                    .tag("field", field).register(meterRegistry);
+        }
+        return objectMapper.registerModule(new SimpleModule("canonical-strings")
+                .addDeserializer(String.class, new CanonicalStringDeserializer(RawUser.class, canonicalizers)));
     }
 
 }
@@ -0,0 +1,119 @@
+package com.datatransformer.pipeline;
+
+import java.util.Arrays;
+
+import static com.datatransformer.pipeline.BinaryRecordWriter.DEFINITION;
+import static com.datatransformer.pipeline.BinaryRecordWriter.FALSE;
+import static com.datatransformer.pipeline.BinaryRecordWriter.INLINE;
+import static com.datatransformer.pipeline.BinaryRecordWriter.KIND_MASK;
+import static com.datatransformer.pipeline.BinaryRecordWriter.NULL;
+import static com.datatransformer.pipeline.BinaryRecordWriter.REFERENCE;
+import static com.datatransformer.pipeline.BinaryRecordWriter.TRUE;
+
+/**
+ * Flyweight over the current record of a {@link BinaryRecordReader}. Fields are addressed by their position in
+ * the record; a field past the end of a record reads as null.
+ */
+public final class BinaryRecord {
+
+    private final BinaryRecordReader reader;
+    private int[] tags = new int[16];
+    // Inline strings: offset of their bytes; dictionary strings: dictionary index
+    private int[] values = new int[16];
+    private int fields;
+
+    BinaryRecord(BinaryRecordReader reader) {
+        this.reader = reader;
+    }
+
+    void index(int start, int end) {
+        fields = 0;
+        reader.position(start);
+        while (reader.position() < end) {
+            if (fields == tags.length) {
+                tags = Arrays.copyOf(tags, fields * 2);
+                values = Arrays.copyOf(values, fields * 2);
+            }
+            int tag = reader.readVarInt();
+            int offset = reader.position();
+            tags[fields] = tag;
+            switch (tag & KIND_MASK) {
+                case INLINE -> {
+                    values[fields] = offset;
+                    reader.position(offset + (tag >>> 2));
+                }
+                case DEFINITION -> {
+                    values[fields] = reader.define(offset, tag >>> 2);
+                    reader.position(offset + (tag >>> 2));
+                }
+                case REFERENCE -> values[fields] = tag >>> 2;
+                default -> values[fields] = 0;
+            }
+            fields++;
+        }
+    }
+
+    public int fieldCount() {
+        return fields;
+    }
+
+    public boolean isNull(int field) {
+        return field >= fields || tags[field] == NULL;
+    }
+
+    public String string(int field) {
+        if (isNull(field)) {
+            return null;
+        }
+        int tag = tags[field];
+        return switch (tag & KIND_MASK) {
+            case INLINE -> reader.decode(values[field], tag >>> 2);
+            case DEFINITION, REFERENCE -> reader.dictionaryEntry(values[field]);
+            default -> throw new IllegalStateException("Field " + field + " is not a string");
+        };
+    }
+
+    public Boolean bool(int field) {
+        if (isNull(field)) {
+            return null;
+        }
+        return switch (tags[field]) {
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            default -> throw new IllegalStateException("Field " + field + " is not a boolean");
+        };
+    }
+
+    /**
+     * Compares a string field with the same field of another record in {@link String#compareTo} order, nulls
+     * first. Inline strings are compared on their bytes and only decoded when they differ in a non-ASCII byte,
+     * where UTF-8 byte order and UTF-16 order can disagree.
+     */
+    public int compareString(int field, BinaryRecord other) {
+        boolean nullHere = isNull(field);
+        boolean nullThere = other.isNull(field);
+        if (nullHere || nullThere) {
+            return nullHere == nullThere ? 0 : nullHere ? -1 : 1;
+        }
+        int tag = tags[field];
+        int otherTag = other.tags[field];
+        if ((tag & KIND_MASK) != INLINE || (otherTag & KIND_MASK) != INLINE) {
+            return string(field).compareTo(other.string(field));
+        }
+        int length = tag >>> 2;
+        int otherLength = otherTag >>> 2;
+        int offset = values[field];
+        int otherOffset = other.values[field];
+        for (int i = 0, common = Math.min(length, otherLength); i < common; i++) {
+            byte b = reader.byteAt(offset + i);
+            byte otherByte = other.reader.byteAt(otherOffset + i);
+            if (b != otherByte) {
+                if (b < 0 || otherByte < 0) {
+                    return string(field).compareTo(other.string(field));
+                }
+                return b - otherByte;
+            }
+        }
+        return length - otherLength;
+    }
+}
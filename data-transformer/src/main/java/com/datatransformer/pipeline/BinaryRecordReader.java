@@ -0,0 +1,86 @@
+package com.datatransformer.pipeline;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads records written by {@link BinaryRecordWriter} from a buffer, for example a memory-mapped file, between
+ * its position and limit. {@link #next} moves one flyweight {@link BinaryRecord} to the next record: it only
+ * notes where each field starts, and strings are decoded when a field is read. Dictionary definitions are
+ * picked up as records are passed, so records must be read in order, though their fields need not be.
+ */
+public final class BinaryRecordReader {
+
+    private final ByteBuffer buffer;
+    private final List<String> dictionary = new ArrayList<>();
+    private final BinaryRecord record = new BinaryRecord(this);
+    private byte[] scratch = new byte[256];
+    private int position;
+
+    public BinaryRecordReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+    }
+
+    // Moves the record to the next one; false at the end of the buffer
+    public boolean next() {
+        if (position >= buffer.limit()) {
+            return false;
+        }
+        int length = readVarInt();
+        int start = position;
+        record.index(start, start + length);
+        position = start + length;
+        return true;
+    }
+
+    // The current record, valid until the next call to next
+    public BinaryRecord record() {
+        return record;
+    }
+
+    int readVarInt() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get(position++);
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    int position() {
+        return position;
+    }
+
+    void position(int position) {
+        this.position = position;
+    }
+
+    byte byteAt(int index) {
+        return buffer.get(index);
+    }
+
+    int define(int offset, int length) {
+        dictionary.add(decode(offset, length));
+        return dictionary.size() - 1;
+    }
+
+    String dictionaryEntry(int index) {
+        return dictionary.get(index);
+    }
+
+    String decode(int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(offset, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
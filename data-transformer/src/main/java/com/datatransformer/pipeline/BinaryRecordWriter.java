@@ -0,0 +1,131 @@
+package com.datatransformer.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the pipeline's binary record format: each record is a varint byte length followed by its fields, and
+ * each field starts with a varint tag whose low two bits give its kind:
+ * <ul>
+ *   <li>{@code 0}: null ({@code tag == 0}) or a boolean ({@code tag >>> 2} is 1 for false, 2 for true)</li>
+ *   <li>{@code 1}: a string of {@code tag >>> 2} UTF-8 bytes</li>
+ *   <li>{@code 2}: a dictionary string of {@code tag >>> 2} UTF-8 bytes, taking the next dictionary index</li>
+ *   <li>{@code 3}: a reference to dictionary entry {@code tag >>> 2}</li>
+ * </ul>
+ * The dictionary belongs to the stream, so repeated values such as a user type cost one or two bytes after their
+ * first record. Fields carry their kind, so {@link BinaryRecordReader} can index a record without its schema.
+ */
+public final class BinaryRecordWriter implements Closeable {
+
+    static final int NULL = 0;
+    static final int FALSE = 1 << 2;
+    static final int TRUE = 2 << 2;
+    static final int KIND_MASK = 3;
+    static final int SCALAR = 0;
+    static final int INLINE = 1;
+    static final int DEFINITION = 2;
+    static final int REFERENCE = 3;
+
+    // A field declared as dictionary-coded that turns out to have many distinct values is written inline beyond this
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+
+    private final OutputStream out;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final byte[] lengthPrefix = new byte[5];
+    private byte[] record = new byte[512];
+    private int length;
+
+    public BinaryRecordWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(NULL);
+        } else {
+            writeText(value, INLINE);
+        }
+    }
+
+    // For fields with few distinct values; later occurrences are written as references to the first
+    public void writeDictionaryString(String value) {
+        if (value == null) {
+            writeVarInt(NULL);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarInt(index << 2 | REFERENCE);
+        } else if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+            dictionary.put(value, dictionary.size());
+            writeText(value, DEFINITION);
+        } else {
+            writeText(value, INLINE);
+        }
+    }
+
+    public void writeBoolean(Boolean value) {
+        writeVarInt(value == null ? NULL : value ? TRUE : FALSE);
+    }
+
+    // Writes the fields since the previous record as one length-prefixed record
+    public void endRecord() throws IOException {
+        int prefix = 0;
+        int value = length;
+        while ((value & ~0x7f) != 0) {
+            lengthPrefix[prefix++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        lengthPrefix[prefix++] = (byte) value;
+        out.write(lengthPrefix, 0, prefix);
+        out.write(record, 0, length);
+        length = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // ASCII is copied char by char; anything else goes through the UTF-8 encoder
+    private void writeText(String value, int kind) {
+        int chars = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < chars && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            writeVarInt(chars << 2 | kind);
+            ensureCapacity(chars);
+            for (int i = 0; i < chars; i++) {
+                record[length++] = (byte) value.charAt(i);
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length << 2 | kind);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, record, length, bytes.length);
+            length += bytes.length;
+        }
+    }
+
+    private void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7f) != 0) {
+            record[length++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        record[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (length + bytes > record.length) {
+            record = Arrays.copyOf(record, Math.max(record.length * 2, length + bytes));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.datatransformer.pipeline;
+
+/**
+ * Progress of a file that has been written up to a record boundary: where reading continues in the input
+ * (see {@link com.datatransformer.pipeline.interfaces.SeekableSource}), how many records have been written and
+ * how many bytes of the output they occupy.
+ */
+public record Checkpoint(long inputOffset, long recordsWritten, long outputLength) {
+
+    public static final Checkpoint START = new Checkpoint(0, 0, 0);
+}
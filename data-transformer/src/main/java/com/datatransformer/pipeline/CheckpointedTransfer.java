@@ -0,0 +1,89 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.pipeline.interfaces.FileSink;
+import com.datatransformer.pipeline.interfaces.SeekableSource;
+import com.datatransformer.pipeline.interfaces.Transformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Transfers a file from a seekable source to an appending sink in chunks of {@code chunkRecords} records and
+ * records a {@link Checkpoint} after each one. Run again with the same checkpoint, e.g. on a retry, it cuts the
+ * output back to the last checkpoint, dropping any partial chunk, and resumes reading from there.
+ */
+public final class CheckpointedTransfer<I, O> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointedTransfer.class);
+
+    private final SeekableSource<I> source;
+    private final Transformer<I, O> transformer;
+    private final FileSink<O> sink;
+    private final long chunkRecords;
+    private final int batchSize;
+    private final StageMetrics metrics;
+
+    public CheckpointedTransfer(SeekableSource<I> source, Transformer<I, O> transformer, FileSink<O> sink,
+            long chunkRecords, int batchSize, StageMetrics metrics) {
+        this.source = source;
+        this.transformer = transformer;
+        this.sink = sink;
+        this.chunkRecords = chunkRecords;
+        this.batchSize = batchSize;
+        this.metrics = metrics;
+    }
+
+    // The filter sees each chunk's transformed records before they are appended
+    public void run(Path input, Path output, AtomicReference<Checkpoint> checkpoint, UnaryOperator<Stream<O>> filter)
+            throws IOException {
+        Checkpoint committed = checkpoint.get();
+        if (committed.recordsWritten() == 0) {
+            Files.deleteIfExists(output);
+        } else {
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+                channel.truncate(committed.outputLength());
+            }
+            logger.info("Resuming file: {} at input offset {}", input, committed.inputOffset());
+        }
+
+        try (SeekableSource.Cursor<I> cursor = source.open(input, committed.inputOffset())) {
+            long records;
+            do {
+                AtomicLong chunkCount = new AtomicLong();
+                Stream<I> chunk = Stream.generate(() -> nextRecord(cursor))
+                        .takeWhile(Objects::nonNull)
+                        .limit(chunkRecords)
+                        .peek(record -> chunkCount.incrementAndGet());
+                // Sub-batches keep the chunk lazy while still giving each stage a batch to be timed on
+                Stream<List<I>> batches = Batches.of(chunk,
+                        (int) (batchSize > 0 ? Math.min(batchSize, chunkRecords) : chunkRecords));
+                Stream<O> transformed = StageMetrics.timeWrites(StageMetrics.timeReads(batches, metrics)
+                        .map(batch -> ParallelTransform.transformBatch(batch, transformer, metrics)), metrics);
+                sink.append(filter.apply(transformed), output);
+                records = chunkCount.get();
+                committed = new Checkpoint(cursor.offset(), committed.recordsWritten() + records, Files.size(output));
+                checkpoint.set(committed);
+            } while (records == chunkRecords);
+        }
+    }
+
+    private static <T> T nextRecord(SeekableSource.Cursor<T> cursor) {
+        try {
+            return cursor.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
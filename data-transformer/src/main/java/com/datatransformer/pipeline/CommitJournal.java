@@ -0,0 +1,91 @@
+package com.datatransformer.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only record of committed input files, keyed by their name, size and last-modified time. Each commit is
+ * one {@code <input name>\t<size>\t<last modified millis>\t<output name>} line, forced to disk before
+ * {@link #commit} returns, so a restart can tell which inputs are done without looking at the outputs. A line
+ * torn by a crash is dropped when the journal is opened.
+ *
+ * <p>An input left behind by a crash after its commit still has the same name, size and modification time, while
+ * a new delivery under the same name is written again and gets a new modification time. That identifies inputs
+ * without reading them a second time just to hash their content.
+ */
+public final class CommitJournal implements Closeable {
+
+    private final FileChannel channel;
+    private final Set<String> committed = new HashSet<>();
+
+    private CommitJournal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static CommitJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            CommitJournal journal = new CommitJournal(channel);
+            long committedLength = journal.load(file);
+            // Cut off a partially written last line, so the next commit starts on a fresh line
+            channel.truncate(committedLength);
+            channel.position(committedLength);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public synchronized boolean contains(String inputName, long size, long lastModified) {
+        return committed.contains(key(inputName, size, lastModified));
+    }
+
+    public synchronized void commit(String inputName, long size, long lastModified, String outputName)
+            throws IOException {
+        byte[] line = (key(inputName, size, lastModified) + '\t' + outputName + '\n')
+                .getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        committed.add(key(inputName, size, lastModified));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static String key(String inputName, long size, long lastModified) {
+        return inputName + '\t' + size + '\t' + lastModified;
+    }
+
+    // Returns the length of the complete lines
+    private long load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        long size = Files.size(file);
+        long committedLength = 0;
+        for (String line : lines) {
+            long lineLength = line.getBytes(StandardCharsets.UTF_8).length + 1L;
+            String[] fields = line.split("\t", -1);
+            if (committedLength + lineLength > size || fields.length != 4) {
+                break;
+            }
+            committed.add(fields[0] + '\t' + fields[1] + '\t' + fields[2]);
+            committedLength += lineLength;
+        }
+        return committedLength;
+    }
+}
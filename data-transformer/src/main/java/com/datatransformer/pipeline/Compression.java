@@ -0,0 +1,80 @@
+package com.datatransformer.pipeline;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming codecs for input and output files, chosen by file name extension.
+ */
+public enum Compression {
+    NONE(""),
+    GZIP(".gz"),
+    ZSTD(".zst");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static Compression fromFileName(String fileName) {
+        String lowerCase = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCase.endsWith(GZIP.extension)) {
+            return GZIP;
+        }
+        if (lowerCase.endsWith(ZSTD.extension)) {
+            return ZSTD;
+        }
+        return NONE;
+    }
+
+    public String stripExtension(String fileName) {
+        return fileName.substring(0, fileName.length() - extension.length());
+    }
+
+    public InputStream decompress(InputStream input) throws IOException {
+        return switch (this) {
+            case NONE -> input;
+            case GZIP -> new GZIPInputStream(input, BUFFER_SIZE);
+            case ZSTD -> new BufferedInputStream(new ZstdInputStream(input), BUFFER_SIZE);
+        };
+    }
+
+    /**
+     * @param level   codec compression level, or a negative value for the codec default
+     * @param workers zstd worker threads compressing in parallel; 0 compresses on the calling thread
+     */
+    public OutputStream compress(OutputStream output, int level, int workers) throws IOException {
+        return switch (this) {
+            case NONE -> output;
+            case GZIP -> new GZIPOutputStream(output, BUFFER_SIZE) {
+                {
+                    if (level >= 0) {
+                        def.setLevel(level);
+                    }
+                }
+            };
+            case ZSTD -> {
+                ZstdOutputStream zstd = level >= 0 ? new ZstdOutputStream(output, level) : new ZstdOutputStream(output);
+                if (workers > 0) {
+                    zstd.setWorkers(workers);
+                }
+                yield zstd;
+            }
+        };
+    }
+}
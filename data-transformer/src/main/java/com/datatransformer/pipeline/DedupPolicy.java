@@ -0,0 +1,13 @@
+package com.datatransformer.pipeline;
+
+/**
+ * Which record a {@link Deduplicator} keeps when several input records share a user {@code Id}.
+ */
+public enum DedupPolicy {
+    // Keep every record
+    NONE,
+    // Keep the first record of each id to reach the sink; single pass
+    FIRST_WINS,
+    // Keep the record with the latest lastSignInDateTime; a first pass over all inputs finds the winners
+    LAST_WINS
+}
@@ -0,0 +1,116 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.interfaces.Source;
+import com.datatransformer.pipeline.interfaces.Transformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Drops users whose {@code Id} was already kept in this run, according to a {@link DedupPolicy}, using an
+ * {@link IdIndex} shared by all files. With {@link DedupPolicy#LAST_WINS}, {@link #scan} must first offer every
+ * input so the index knows which copy of each id wins.
+ */
+public final class Deduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(Deduplicator.class);
+
+    private final DedupPolicy policy;
+    private final IdIndex index;
+    private final Runnable onDropped;
+
+    public Deduplicator(DedupPolicy policy, int concurrency, Runnable onDropped) {
+        if (policy == DedupPolicy.NONE) {
+            throw new IllegalArgumentException("No deduplication with policy " + policy);
+        }
+        this.policy = policy;
+        this.index = new IdIndex(concurrency);
+        this.onDropped = onDropped;
+    }
+
+    /**
+     * First pass of LAST_WINS: offers every user of every input as a candidate for its id. A file that cannot be
+     * read fails here: its partial offers are withdrawn and it is handed to {@code onFailure}, so the second pass
+     * neither waits for winners it would never emit nor processes it. Does nothing for the other policies.
+     */
+    public <I> void scan(List<WorkStealingScheduler.Job<Path>> inputs, int threads, Source<I, Path> source,
+            Transformer<I, TargetUser> transformer, IntSupplier fileIds, BiConsumer<Path, Exception> onFailure)
+            throws InterruptedException {
+        if (policy != DedupPolicy.LAST_WINS) {
+            return;
+        }
+        long start = System.nanoTime();
+        WorkStealingScheduler.run(inputs, threads, "pipeline-dedup-scan-", file -> {
+            int fileId = fileIds.getAsInt();
+            try (Stream<I> records = source.read(file)) {
+                records.map(transformer::transform)
+                        .filter(user -> user.id() != null)
+                        .forEach(user -> index.offer(Fingerprints.hash(user.id()), lastSignInMillis(user),
+                                Fingerprints.of(user), fileId));
+            } catch (Exception e) {
+                index.release(fileId);
+                onFailure.accept(file, e);
+            }
+        });
+        logger.info("Found the latest of {} distinct user ids in {} ms", index.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // Users without an id cannot be compared and are always kept. The owner identifies the file attempt the users
+    // come from, see IdIndex.
+    public Stream<TargetUser> kept(Stream<TargetUser> users, long owner) {
+        return users.filter(user -> isKept(user, owner));
+    }
+
+    // None of a failed file's users were published, so the ids it claimed go back to the copies in other files
+    public void release(int fileId) {
+        index.release(fileId);
+    }
+
+    public long size() {
+        return index.size();
+    }
+
+    private boolean isKept(TargetUser user, long owner) {
+        if (user.id() == null) {
+            return true;
+        }
+        long idHash = Fingerprints.hash(user.id());
+        boolean kept = policy == DedupPolicy.LAST_WINS
+                ? index.claimWinner(idHash, lastSignInMillis(user), Fingerprints.of(user), owner)
+                : index.claimFirst(idHash, owner);
+        if (!kept) {
+            onDropped.run();
+        }
+        return kept;
+    }
+
+    // Timestamps without an offset are taken as UTC; missing or unparseable ones lose to any other
+    private static long lastSignInMillis(TargetUser user) {
+        String value = user.lastSignInDateTime();
+        if (value == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(value, OffsetDateTime::from,
+                    LocalDateTime::from);
+            return parsed instanceof OffsetDateTime offsetDateTime ? offsetDateTime.toInstant().toEpochMilli()
+                    : ((LocalDateTime) parsed).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
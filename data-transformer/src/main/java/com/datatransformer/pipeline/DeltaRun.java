@@ -0,0 +1,110 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.TargetUser;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * One delta-mode run over a {@link DeltaStore}: passes on only the users that are new or changed since the last
+ * committed run, then commits the run and writes the ids of the users it did not see.
+ */
+public final class DeltaRun implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeltaRun.class);
+    private static final JsonFactory DELETES_JSON = new JsonFactory();
+    private static final int DELETES_BUFFER_SIZE = 64 * 1024;
+
+    private final DeltaStore store;
+    private final LongAdder emitted = new LongAdder();
+
+    private DeltaRun(DeltaStore store) {
+        this.store = store;
+    }
+
+    public static DeltaRun open(Path directory) throws IOException {
+        DeltaStore store = DeltaStore.open(directory);
+        logger.info("Delta run {} against {} stored ids", store.run(), store.size());
+        return new DeltaRun(store);
+    }
+
+    // Users without an id cannot be compared and always pass
+    public Stream<TargetUser> changed(Stream<TargetUser> users) {
+        return users.filter(user -> {
+            if (user.id() == null) {
+                return true;
+            }
+            try {
+                if (store.update(user.id(), Fingerprints.of(user))) {
+                    emitted.increment();
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Commits the run, so the next run compares against it, and with {@code emitDeletes} publishes the ids of the
+     * users that were not seen as {@code deleted-users-<run>.json}. Skipped when a file failed or no user was
+     * seen: the users in the missing files would otherwise be reported as deleted, and the next run repeats this
+     * one instead.
+     */
+    public void finish(int failedFiles, boolean emitDeletes, OutputDirectory output, Compression compression)
+            throws IOException {
+        if (failedFiles > 0 || store.seen() == 0) {
+            logger.warn("Delta run {} not committed: {} failed files, {} users seen; the next run repeats it",
+                    store.run(), failedFiles, store.seen());
+            return;
+        }
+        long deleted = 0;
+        if (emitDeletes) {
+            String deletesName = "deleted-users-" + store.run() + ".json" + compression.extension();
+            try (Stream<String> unseenIds = store.unseenIds()) {
+                deleted = writeDeletes(unseenIds, output.inProgress(deletesName), compression);
+            }
+            output.publish(deletesName);
+        }
+        store.commitRun(emitDeletes);
+        logger.info("Delta run {} committed: {} of {} users emitted, {} deleted", store.run(), emitted.sum(),
+                store.seen(), deleted);
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    // Deletes always go to their own NDJSON file of id-only records, whatever the sink: written through a JDBC,
+    // Parquet or partitioned sink they would look like users with every other field null
+    private static long writeDeletes(Stream<String> ids, Path file, Compression compression) throws IOException {
+        long count = 0;
+        try (OutputStream out = compression.compress(
+                new BufferedOutputStream(Files.newOutputStream(file), DELETES_BUFFER_SIZE), -1, 0);
+                JsonGenerator generator = DELETES_JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            for (String id : (Iterable<String>) ids::iterator) {
+                generator.writeStartObject();
+                generator.writeStringField("Id", id);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,452 @@
+package com.datatransformer.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * On-disk map from record id to a 64-bit fingerprint of the record as last emitted, used to pass on only the
+ * records that changed since the previous run. The map is split into stripes chosen by the high bits of the id
+ * hash, each an open-addressing hash table in its own memory-mapped file that is locked and doubled on its own,
+ * so workers updating different ids rarely contend and tens of millions of ids cost page cache rather than heap.
+ * Each slot holds the 64-bit hash of the id (two ids colliding on it are treated as the same id), the current and
+ * previous fingerprint, the run that last saw the id and the offset of the id itself in a separate append-only
+ * file, which is only read back to report deleted ids.
+ *
+ * <p>Runs are numbered. {@link #update} compares a fingerprint against the one from before the current run, so
+ * a file that is retried, or a run that is repeated after a crash or a failed file, emits the same records again
+ * instead of losing them. Only {@link #commitRun} makes the current fingerprints the baseline for the next run.
+ * Not safe against power loss between commits; a process crash loses nothing that was not going to be redone.
+ */
+public final class DeltaStore implements Closeable {
+
+    private static final int MAGIC = 0x444c5441;
+    private static final int VERSION = 2;
+
+    // Store header: magic, version, stripe count, last committed run, dirty flag, durable length of the ids file
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_STRIPES = 8;
+    private static final int H_COMMITTED_RUN = 12;
+    private static final int H_DIRTY = 16;
+    private static final int H_IDS_LENGTH = 24;
+
+    // Stripe header: capacity, used slots
+    private static final int T_CAPACITY = 0;
+    private static final int T_USED = 8;
+
+    // Slot: id hash, fingerprint, fingerprint before this run, offset of the id, run last seen, flags
+    private static final int SLOT_SIZE = 40;
+    private static final int S_KEY = 0;
+    private static final int S_VALUE = 8;
+    private static final int S_PREVIOUS = 16;
+    private static final int S_ID_OFFSET = 24;
+    private static final int S_SEEN_RUN = 32;
+    private static final int S_FLAGS = 36;
+
+    private static final int OCCUPIED = 1;
+    private static final int DELETED = 2;
+    private static final int HAS_PREVIOUS = 4;
+
+    private static final int STRIPES = 64;
+    // 16M slots (640 MB) per mapping, since a single mapping cannot exceed 2 GB
+    private static final int SEGMENT_SHIFT = 24;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final long INITIAL_STRIPE_CAPACITY = 1 << 10;
+    private static final int ID_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel headerFile;
+    private final MappedByteBuffer header;
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final int run;
+    private final LongAdder seen = new LongAdder();
+
+    // Guards the ids file and its write buffer; held only while an id is appended
+    private final Object idsLock = new Object();
+    private final FileChannel ids;
+    private final ByteBuffer idBuffer = ByteBuffer.allocateDirect(ID_BUFFER_SIZE);
+    private long idsLength;
+
+    private DeltaStore(Path directory) throws IOException {
+        Path headerPath = directory.resolve("header");
+        if (!Files.exists(headerPath) && Files.exists(directory.resolve("table"))) {
+            throw new IOException("Delta store " + directory + " was written by an older version; delete it to start"
+                    + " over, and the next run emits every user");
+        }
+        boolean exists = Files.exists(headerPath);
+        this.headerFile = FileChannel.open(headerPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.ids = openOrClose(directory.resolve("ids"), headerFile);
+        this.stripes = new Stripe[STRIPES];
+        this.stripeShift = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+        try {
+            this.header = headerFile.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (!exists) {
+                header.putInt(H_MAGIC, MAGIC).putInt(H_VERSION, VERSION).putInt(H_STRIPES, STRIPES);
+            } else if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION
+                    || header.getInt(H_STRIPES) != STRIPES) {
+                throw new IOException("Not a delta store: " + headerPath);
+            }
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(directory.resolve(String.format("table-%02d", i)));
+            }
+            idsLength = header.getLong(H_IDS_LENGTH);
+            run = header.getInt(H_COMMITTED_RUN) + 1;
+            if (header.getInt(H_DIRTY) != 0) {
+                for (Stripe stripe : stripes) {
+                    stripe.forgetLostIds(idsLength);
+                }
+            }
+            // Anything past the durable length was written by a process that did not get to flush its header
+            ids.truncate(idsLength);
+            header.putInt(H_DIRTY, 1);
+            header.force();
+        } catch (IOException | RuntimeException e) {
+            closeAll();
+            throw e;
+        }
+    }
+
+    public static DeltaStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new DeltaStore(directory);
+    }
+
+    private static FileChannel openOrClose(Path file, FileChannel opened) throws IOException {
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+    }
+
+    // Number of the run in progress; the first run is 1
+    public int run() {
+        return run;
+    }
+
+    // Ids stored, including those deleted in an earlier run
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.used;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Records the fingerprint of a record seen in this run and returns whether it has to be emitted: the id is
+     * new, was deleted in an earlier run, or its fingerprint differs from the one committed by the last run.
+     */
+    public boolean update(String id, long fingerprint) throws IOException {
+        long keyHash = Fingerprints.hash(id);
+        Stripe stripe = stripes[(int) (keyHash >>> stripeShift)];
+        seen.increment();
+        synchronized (stripe) {
+            if (stripe.used + 1 > stripe.capacity - (stripe.capacity >>> 2)) {
+                stripe.resize(stripe.capacity * 2);
+            }
+            long slot = stripe.find(keyHash);
+            ByteBuffer segment = stripe.segment(slot);
+            int at = offset(slot);
+            int flags = segment.getShort(at + S_FLAGS);
+
+            if ((flags & OCCUPIED) == 0) {
+                segment.putLong(at + S_KEY, keyHash);
+                segment.putLong(at + S_VALUE, fingerprint);
+                segment.putLong(at + S_ID_OFFSET, appendId(id));
+                segment.putInt(at + S_SEEN_RUN, run);
+                segment.putShort(at + S_FLAGS, (short) OCCUPIED);
+                stripe.used++;
+                stripe.header.putLong(T_USED, stripe.used);
+                return true;
+            }
+
+            if (segment.getInt(at + S_SEEN_RUN) != run) {
+                // First sighting in this run: the stored fingerprint becomes the baseline to compare against
+                flags = (flags & DELETED) == 0 ? OCCUPIED | HAS_PREVIOUS : OCCUPIED;
+                segment.putLong(at + S_PREVIOUS, segment.getLong(at + S_VALUE));
+                segment.putInt(at + S_SEEN_RUN, run);
+                segment.putShort(at + S_FLAGS, (short) flags);
+            }
+            if (segment.getLong(at + S_ID_OFFSET) < 0) {
+                segment.putLong(at + S_ID_OFFSET, appendId(id));
+            }
+            segment.putLong(at + S_VALUE, fingerprint);
+            return (flags & HAS_PREVIOUS) == 0 || segment.getLong(at + S_PREVIOUS) != fingerprint;
+        }
+    }
+
+    // Records passed to update in this run, including repeats
+    public long seen() {
+        return seen.sum();
+    }
+
+    /**
+     * Ids stored but not seen in this run, i.e. the records deleted since the last run, read lazily from the ids
+     * file. Only valid while no updates run, i.e. once every file of the run is done.
+     */
+    public Stream<String> unseenIds() throws IOException {
+        synchronized (idsLock) {
+            flushIds();
+        }
+        return Arrays.stream(stripes).flatMap(stripe -> LongStream.range(0, stripe.capacity)
+                .filter(slot -> isUnseen(stripe.segment(slot), offset(slot)))
+                .map(slot -> stripe.segment(slot).getLong(offset(slot) + S_ID_OFFSET))
+                .filter(idOffset -> idOffset >= 0)
+                .mapToObj(this::readId));
+    }
+
+    /**
+     * Makes the fingerprints of this run the baseline for the next one. With {@code dropUnseen}, ids not seen in
+     * this run are marked deleted, so they count as new if they come back.
+     */
+    public synchronized void commitRun(boolean dropUnseen) throws IOException {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (dropUnseen) {
+                    stripe.dropUnseen(run);
+                }
+                stripe.force();
+            }
+        }
+        synchronized (idsLock) {
+            flushIds();
+            ids.force(false);
+            header.putLong(H_IDS_LENGTH, idsLength);
+        }
+        header.putInt(H_COMMITTED_RUN, run);
+        header.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.force();
+                }
+            }
+            synchronized (idsLock) {
+                flushIds();
+                ids.force(false);
+                header.putLong(H_IDS_LENGTH, idsLength);
+            }
+            header.putInt(H_DIRTY, 0);
+            header.force();
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void closeAll() throws IOException {
+        try {
+            for (Stripe stripe : stripes) {
+                if (stripe != null) {
+                    stripe.table.close();
+                }
+            }
+        } finally {
+            ids.close();
+            headerFile.close();
+        }
+    }
+
+    private boolean isUnseen(ByteBuffer segment, int at) {
+        int flags = segment.getShort(at + S_FLAGS);
+        return (flags & OCCUPIED) != 0 && (flags & DELETED) == 0 && segment.getInt(at + S_SEEN_RUN) != run;
+    }
+
+    private static int offset(long slot) {
+        return (int) (slot & SEGMENT_MASK) * SLOT_SIZE;
+    }
+
+    // Ids are stored as a 4-byte length followed by UTF-8 bytes
+    private long appendId(String id) throws IOException {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        synchronized (idsLock) {
+            if (idBuffer.remaining() < Integer.BYTES + bytes.length) {
+                flushIds();
+            }
+            long offset = idsLength + idBuffer.position();
+            if (Integer.BYTES + bytes.length > idBuffer.capacity()) {
+                ByteBuffer large = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes)
+                        .flip();
+                writeFully(large, idsLength);
+                idsLength += large.capacity();
+                return offset;
+            }
+            idBuffer.putInt(bytes.length).put(bytes);
+            return offset;
+        }
+    }
+
+    private void flushIds() throws IOException {
+        idBuffer.flip();
+        int length = idBuffer.remaining();
+        writeFully(idBuffer, idsLength);
+        idsLength += length;
+        idBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += ids.write(buffer, position);
+        }
+    }
+
+    private String readId(long offset) {
+        try {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(length, offset);
+            ByteBuffer bytes = ByteBuffer.allocate(length.getInt(0));
+            readFully(bytes, offset + Integer.BYTES);
+            return new String(bytes.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = ids.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Delta store ids file is truncated at " + position);
+            }
+            position += read;
+        }
+    }
+
+    // One table file; all access is synchronized on the stripe
+    private static final class Stripe {
+        private final Path file;
+        private FileChannel table;
+        private MappedByteBuffer header;
+        private MappedByteBuffer[] segments;
+        private long capacity;
+        private long used;
+
+        Stripe(Path file) throws IOException {
+            this.file = file;
+            map(Files.exists(file) ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : create(file, INITIAL_STRIPE_CAPACITY));
+            capacity = header.getLong(T_CAPACITY);
+            used = header.getLong(T_USED);
+        }
+
+        // Linear probing: the slot holding the key, or the empty slot where it belongs
+        long find(long keyHash) {
+            long mask = capacity - 1;
+            long slot = keyHash & mask;
+            while (true) {
+                ByteBuffer segment = segment(slot);
+                int at = offset(slot);
+                if ((segment.getShort(at + S_FLAGS) & OCCUPIED) == 0 || segment.getLong(at + S_KEY) == keyHash) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        ByteBuffer segment(long slot) {
+            return segments[(int) (slot >>> SEGMENT_SHIFT)];
+        }
+
+        void dropUnseen(int run) {
+            for (long slot = 0; slot < capacity; slot++) {
+                ByteBuffer segment = segment(slot);
+                int at = offset(slot);
+                int flags = segment.getShort(at + S_FLAGS);
+                if ((flags & OCCUPIED) != 0 && (flags & DELETED) == 0 && segment.getInt(at + S_SEEN_RUN) != run) {
+                    segment.putShort(at + S_FLAGS, (short) (flags | DELETED));
+                }
+            }
+        }
+
+        void force() {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            header.force();
+        }
+
+        // Rehashes into a table twice the size, leaving out deleted ids, and swaps it in with an atomic rename
+        void resize(long newCapacity) throws IOException {
+            Path resized = file.resolveSibling(file.getFileName() + ".resize");
+            FileChannel oldTable = table;
+            MappedByteBuffer[] oldSegments = segments;
+            long oldCapacity = capacity;
+
+            map(create(resized, newCapacity));
+            capacity = newCapacity;
+            used = 0;
+            for (long slot = 0; slot < oldCapacity; slot++) {
+                ByteBuffer from = oldSegments[(int) (slot >>> SEGMENT_SHIFT)];
+                int at = offset(slot);
+                int flags = from.getShort(at + S_FLAGS);
+                if ((flags & OCCUPIED) != 0 && (flags & DELETED) == 0) {
+                    long target = find(from.getLong(at + S_KEY));
+                    segment(target).put(offset(target), from, at, SLOT_SIZE);
+                    used++;
+                }
+            }
+            header.putLong(T_USED, used);
+            force();
+            Files.move(resized, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            oldTable.close();
+        }
+
+        // After a crash, slots may point at ids that never reached the ids file; they are rewritten on next sight
+        void forgetLostIds(long idsLength) {
+            for (long slot = 0; slot < capacity; slot++) {
+                ByteBuffer segment = segment(slot);
+                int at = offset(slot);
+                if ((segment.getShort(at + S_FLAGS) & OCCUPIED) != 0
+                        && segment.getLong(at + S_ID_OFFSET) >= idsLength) {
+                    segment.putLong(at + S_ID_OFFSET, -1);
+                }
+            }
+        }
+
+        private static FileChannel create(Path file, long capacity) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(T_CAPACITY, capacity);
+            channel.write(header, 0);
+            // Extend the file to its full size; the slots start out zeroed, i.e. empty
+            channel.write(ByteBuffer.wrap(new byte[1]), HEADER_SIZE + capacity * SLOT_SIZE - 1);
+            return channel;
+        }
+
+        private void map(FileChannel channel) throws IOException {
+            table = channel;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            long slots = header.getLong(T_CAPACITY);
+            int count = (int) ((slots + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(slots - first, 1L << SEGMENT_SHIFT) * SLOT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + first * SLOT_SIZE, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.datatransformer.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Reports files in a directory once they are fully written. A file is ready when its marker file
+ * ({@code <name><markerSuffix>}) exists or, without a marker suffix, when its size and modification time
+ * have not changed for the settle time. Each version of a file is reported once.
+ *
+ * <p>Uses a {@link WatchService} when the file system supports one and falls back to rescanning the
+ * directory on every poll otherwise. Not thread-safe: poll from a single thread.
+ */
+public class DirectoryWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    private final Path directory;
+    private final Predicate<Path> filter;
+    private final long settleNanos;
+    private final String markerSuffix;
+    private final WatchService watchService;
+    private final Map<Path, Candidate> candidates = new HashMap<>();
+    private boolean rescan = true;
+
+    public DirectoryWatcher(Path directory, Predicate<Path> filter, Duration settleTime, String markerSuffix,
+            boolean forcePolling) throws IOException {
+        this.directory = directory;
+        this.filter = filter;
+        this.settleNanos = settleTime.toNanos();
+        this.markerSuffix = markerSuffix == null || markerSuffix.isEmpty() ? null : markerSuffix;
+        this.watchService = forcePolling ? null : register(directory);
+    }
+
+    public boolean isPolling() {
+        return watchService == null;
+    }
+
+    // Waits up to the timeout for file system changes and returns the files that became ready
+    public List<Path> poll(Duration timeout) throws IOException, InterruptedException {
+        if (watchService == null) {
+            Thread.sleep(timeout.toMillis());
+            rescan = true;
+        } else {
+            WatchKey key = watchService.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            while (key != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        rescan = true;
+                    } else {
+                        track(directory.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    throw new NoSuchFileException(directory.toString(), null, "Watched directory is no longer accessible");
+                }
+                key = watchService.poll();
+            }
+        }
+        if (rescan) {
+            rescan = false;
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(this::track);
+            }
+        }
+        return collectReady();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void track(Path path) {
+        if (markerSuffix != null && path.getFileName().toString().endsWith(markerSuffix)) {
+            String name = path.getFileName().toString();
+            path = path.resolveSibling(name.substring(0, name.length() - markerSuffix.length()));
+        }
+        if (filter.test(path)) {
+            candidates.computeIfAbsent(path, p -> new Candidate());
+        }
+    }
+
+    private List<Path> collectReady() throws IOException {
+        List<Path> ready = new ArrayList<>();
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Candidate>> entries = candidates.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, Candidate> entry = entries.next();
+            Path path = entry.getKey();
+            Candidate candidate = entry.getValue();
+
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                entries.remove();
+                continue;
+            }
+            if (!attributes.isRegularFile()) {
+                entries.remove();
+                continue;
+            }
+
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (attributes.size() != candidate.size || modified != candidate.modified) {
+                // New or changed since the last look: restart the settle period
+                candidate.size = attributes.size();
+                candidate.modified = modified;
+                candidate.changedAt = now;
+                candidate.reported = false;
+            }
+            if (!candidate.reported && isComplete(path, candidate, now)) {
+                candidate.reported = true;
+                ready.add(path);
+                if (markerSuffix != null) {
+                    // The marker is consumed so it does not pile up next to the processed files
+                    Files.deleteIfExists(markerOf(path));
+                }
+            }
+        }
+        return ready;
+    }
+
+    private boolean isComplete(Path path, Candidate candidate, long now) {
+        if (markerSuffix != null) {
+            return Files.exists(markerOf(path));
+        }
+        return now - candidate.changedAt >= settleNanos;
+    }
+
+    private Path markerOf(Path path) {
+        return path.resolveSibling(path.getFileName() + markerSuffix);
+    }
+
+    private static WatchService register(Path directory) throws IOException {
+        WatchService watchService;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+        } catch (UnsupportedOperationException e) {
+            logger.warn("File system of {} has no watch service, falling back to polling", directory);
+            return null;
+        }
+        try {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        return watchService;
+    }
+
+    private static final class Candidate {
+        private long size = -1;
+        private long modified = -1;
+        private long changedAt;
+        private boolean reported;
+    }
+}
@@ -0,0 +1,247 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.pipeline.interfaces.Sink;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorts more records than fit in memory. Writing a stream to a run directory cuts it into runs of at most half
+ * the memory budget (by estimated heap size); each run is sorted and spilled to a binary file on a spill thread
+ * while the next one fills, so a stream holds at most two runs and several streams spill at once. Run directories
+ * added to the sorter are then merged k-way from memory-mapped run files into one ordered stream. Runs use the
+ * binary record format, and the merge compares the flyweight records of the runs, decoding each record only
+ * when it is next in order.
+ *
+ * <p>A run directory is rewritten from scratch on every write, so a failed attempt leaves nothing behind once it
+ * is retried, and only directories passed to {@link #add} take part in the merge.
+ */
+public final class ExternalSorter<T> implements Sink<T, Path>, Closeable {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String RUN_PREFIX = "run-";
+
+    private final Path directory;
+    private final RecordCodec<T> codec;
+    private final Comparator<T> order;
+    private final Comparator<BinaryRecord> recordOrder;
+    private final ToLongFunction<T> sizeEstimate;
+    private final long runBudget;
+    private final ExecutorService spillPool;
+    private final List<Path> runs = new ArrayList<>();
+
+    private ExternalSorter(Path directory, RecordCodec<T> codec, Comparator<T> order,
+            Comparator<BinaryRecord> recordOrder, ToLongFunction<T> sizeEstimate, long memoryBudget,
+            int spillThreads) {
+        this.directory = directory;
+        this.codec = codec;
+        this.order = order;
+        this.recordOrder = recordOrder;
+        this.sizeEstimate = sizeEstimate;
+        this.runBudget = Math.max(1, memoryBudget / 2);
+        AtomicInteger threads = new AtomicInteger();
+        this.spillPool = Executors.newFixedThreadPool(spillThreads, task -> {
+            Thread thread = new Thread(task, "sort-spill-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param parent       directory to create the sorter's temporary directory in
+     * @param recordOrder  the same order as {@code order}, on encoded records
+     * @param memoryBudget estimated heap bytes each written stream may hold: the filling run and the one spilling
+     * @param spillThreads threads sorting and writing runs, shared by all streams
+     */
+    public static <T> ExternalSorter<T> open(Path parent, RecordCodec<T> codec, Comparator<T> order,
+            Comparator<BinaryRecord> recordOrder, ToLongFunction<T> sizeEstimate, long memoryBudget,
+            int spillThreads) throws IOException {
+        Files.createDirectories(parent);
+        Path directory = Files.createTempDirectory(parent, "pipeline-sort-");
+        return new ExternalSorter<>(directory, codec, order, recordOrder, sizeEstimate, memoryBudget, spillThreads);
+    }
+
+    // Run directory for one input inside the sorter's temporary directory
+    public Path runDirectory(String name) {
+        return directory.resolve(name);
+    }
+
+    @Override
+    public void write(Stream<T> data, Path runDirectory) throws IOException {
+        deleteRecursively(runDirectory);
+        Files.createDirectories(runDirectory);
+        Future<?> spilling = null;
+        try {
+            List<T> run = new ArrayList<>();
+            long runBytes = 0;
+            int sequence = 0;
+            Iterator<T> iterator = data.iterator();
+            while (iterator.hasNext()) {
+                T record = iterator.next();
+                run.add(record);
+                runBytes += sizeEstimate.applyAsLong(record);
+                if (runBytes >= runBudget) {
+                    await(spilling);
+                    spilling = spill(run, runDirectory.resolve(runName(sequence++)));
+                    run = new ArrayList<>(run.size());
+                    runBytes = 0;
+                }
+            }
+            await(spilling);
+            spilling = null;
+            if (!run.isEmpty()) {
+                spill(run, runDirectory.resolve(runName(sequence))).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while spilling to " + runDirectory, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to spill to " + runDirectory, e.getCause());
+        } finally {
+            if (spilling != null) {
+                spilling.cancel(true);
+            }
+        }
+    }
+
+    private Future<?> spill(List<T> run, Path file) {
+        return spillPool.submit(() -> {
+            run.sort(order);
+            try (BinaryRecordWriter out = new BinaryRecordWriter(
+                    new BufferedOutputStream(Files.newOutputStream(file), WRITE_BUFFER_SIZE))) {
+                for (T record : run) {
+                    codec.write(record, out);
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void await(Future<?> future) throws InterruptedException, ExecutionException {
+        if (future != null) {
+            future.get();
+        }
+    }
+
+    private static String runName(int sequence) {
+        return String.format("%s%05d", RUN_PREFIX, sequence);
+    }
+
+    // Adds the runs written to a run directory to the merge
+    public void add(Path runDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(runDirectory)) {
+            List<Path> written = files.filter(file -> file.getFileName().toString().startsWith(RUN_PREFIX))
+                    .sorted()
+                    .toList();
+            synchronized (runs) {
+                runs.addAll(written);
+            }
+        }
+    }
+
+    public int runCount() {
+        synchronized (runs) {
+            return runs.size();
+        }
+    }
+
+    /**
+     * Merges all added runs into one ordered stream. Records that compare equal come out in the order their runs
+     * were added, and within a run in the order they were written.
+     */
+    public Stream<T> merge() throws IOException {
+        List<Cursor> cursors = new ArrayList<>();
+        synchronized (runs) {
+            for (Path run : runs) {
+                Cursor cursor = new Cursor(new BinaryRecordReader(map(run)), cursors.size());
+                if (cursor.reader().next()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+        Comparator<Cursor> byRecord = Comparator.comparing((Cursor cursor) -> cursor.reader().record(), recordOrder)
+                .thenComparingInt(Cursor::index);
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, cursors.size()), byRecord);
+        heap.addAll(cursors);
+        Iterator<T> merged = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                Cursor cursor = heap.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                T record = codec.read(cursor.reader().record());
+                if (cursor.reader().next()) {
+                    heap.add(cursor);
+                }
+                return record;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Runs are bounded by the memory budget, so one mapping covers a whole run
+    private static MappedByteBuffer map(Path run) throws IOException {
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Run exceeds 2 GB, lower the sort memory budget: " + run);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // Deletes all runs; mapped runs stay readable until their mappings are collected
+    @Override
+    public void close() throws IOException {
+        spillPool.shutdownNow();
+        synchronized (runs) {
+            runs.clear();
+        }
+        deleteRecursively(directory);
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record Cursor(BinaryRecordReader reader, int index) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.TargetUser;
+
+/**
+ * 64-bit hashes of ids and records, stable across runs and JVMs so they can be persisted. FNV-1a over the UTF-16
+ * code units, finished with the MurmurHash3 mixer so the low bits are usable as a hash table index.
+ */
+public final class Fingerprints {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private Fingerprints() {
+    }
+
+    public static long hash(String value) {
+        return mix(fnv(OFFSET_BASIS, value));
+    }
+
+    // Fingerprint of a record given as its field values; null and empty fields are told apart
+    public static long of(String... fields) {
+        long h = OFFSET_BASIS;
+        for (String field : fields) {
+            if (field == null) {
+                h = (h ^ 0xff) * PRIME;
+            } else {
+                h = fnv(h, field);
+                h = (h ^ 0xfe) * PRIME;
+            }
+        }
+        return mix(h);
+    }
+
+    // Fingerprint of every field of a user, so any change to the user changes it
+    public static long of(TargetUser user) {
+        return of(user.id(), user.externalId(), user.mail(), user.type(), user.location(),
+                String.valueOf(user.isEnabled()), user.firstName(), user.lastName(), user.lastSignInDateTime(),
+                user.lastSuccessfulSignInDateTime(), user.lastNonInteractiveSignInDateTime());
+    }
+
+    private static long fnv(long h, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            h = (h ^ (c & 0xff)) * PRIME;
+            h = (h ^ (c >>> 8)) * PRIME;
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
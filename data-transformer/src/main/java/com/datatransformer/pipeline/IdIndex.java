@@ -0,0 +1,214 @@
+package com.datatransformer.pipeline;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Concurrent map from 64-bit id hashes to the record that owns the id, kept in direct (off-heap) memory. The
+ * table is split into independently locked stripes chosen by the high bits of the hash, each an open-addressing
+ * table that doubles on its own, so workers touching different ids rarely contend and never wait for a global
+ * resize. Two ids colliding on all 64 bits are treated as the same id.
+ *
+ * <p>Owners are tokens from {@link #owner}: a file and the attempt that processed it. An id claimed by an earlier
+ * attempt at the same file can be claimed again, so a retried file emits its records again instead of dropping
+ * them as duplicates of itself. A file that fails for good releases its claims, and the best offers it made, so
+ * later copies of its ids are kept again.
+ */
+public final class IdIndex {
+
+    // Slot: id hash (0 = empty), timestamp, fingerprint, owner
+    private static final int SLOT_SIZE = 32;
+    private static final int S_KEY = 0;
+    private static final int S_TIMESTAMP = 8;
+    private static final int S_FINGERPRINT = 16;
+    private static final int S_OWNER = 24;
+
+    // Owner of an id whose file failed; 0 is an id nobody claimed yet
+    private static final long RELEASED = -1;
+    // Unclaimed, with the best offer made by the file in the low bits
+    private static final long OFFERED = Long.MIN_VALUE;
+
+    private static final int INITIAL_SLOTS_PER_STRIPE = 1 << 10;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    public IdIndex(int concurrency) {
+        int count = Integer.highestOneBit(Math.max(64, concurrency * 4) - 1) << 1;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeShift = Long.SIZE - Integer.numberOfTrailingZeros(count);
+    }
+
+    // Owner token for an attempt at a file; file ids start at 1, attempts at 0
+    public static long owner(int fileId, int attempt) {
+        return ((long) fileId << 16) | (attempt & 0xffff);
+    }
+
+    /**
+     * First-wins: claims the id for the owner if no other file has, and returns whether the owner's record is the
+     * one to keep. A second record with the same id in the same attempt is a duplicate too.
+     */
+    public boolean claimFirst(long idHash, long owner) {
+        Stripe stripe = stripe(idHash);
+        synchronized (stripe) {
+            int at = stripe.findOrInsert(key(idHash));
+            long current = stripe.slots.getLong(at + S_OWNER);
+            if (current == 0 || current == RELEASED || isEarlierAttempt(current, owner)) {
+                stripe.slots.putLong(at + S_OWNER, owner);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // Last-wins, first pass: remembers the record with the latest timestamp for the id (ties go to the larger
+    // fingerprint, so the winner does not depend on which worker got there first) and the file it came from
+    public void offer(long idHash, long timestamp, long fingerprint, int fileId) {
+        Stripe stripe = stripe(idHash);
+        synchronized (stripe) {
+            int sizeBefore = stripe.size;
+            int at = stripe.findOrInsert(key(idHash));
+            ByteBuffer slots = stripe.slots;
+            long bestTimestamp = slots.getLong(at + S_TIMESTAMP);
+            if (stripe.size != sizeBefore || timestamp > bestTimestamp
+                    || timestamp == bestTimestamp && fingerprint > slots.getLong(at + S_FINGERPRINT)) {
+                slots.putLong(at + S_TIMESTAMP, timestamp);
+                slots.putLong(at + S_FINGERPRINT, fingerprint);
+                slots.putLong(at + S_OWNER, OFFERED | fileId);
+            }
+        }
+    }
+
+    /**
+     * Last-wins, second pass: returns whether the record is the winner offered for its id and has not been
+     * claimed by another file or earlier in this attempt. Ids that were never offered are kept, and so is the
+     * first record claimed after the winner's file released the id.
+     */
+    public boolean claimWinner(long idHash, long timestamp, long fingerprint, long owner) {
+        Stripe stripe = stripe(idHash);
+        synchronized (stripe) {
+            int at = stripe.find(key(idHash));
+            if (at < 0) {
+                return true;
+            }
+            ByteBuffer slots = stripe.slots;
+            long current = slots.getLong(at + S_OWNER);
+            if (current == RELEASED) {
+                slots.putLong(at + S_OWNER, owner);
+                return true;
+            }
+            if (slots.getLong(at + S_TIMESTAMP) != timestamp || slots.getLong(at + S_FINGERPRINT) != fingerprint) {
+                return false;
+            }
+            if (current <= 0 || isEarlierAttempt(current, owner)) {
+                slots.putLong(at + S_OWNER, owner);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Releases every id claimed by any attempt at the file, and every id the file made the best offer for, once
+     * the file has failed and none of its records were published. Records of those ids that other files already
+     * dropped stay dropped.
+     */
+    public void release(int fileId) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                ByteBuffer slots = stripe.slots;
+                for (int at = 0; at < stripe.capacity * SLOT_SIZE; at += SLOT_SIZE) {
+                    long current = slots.getLong(at + S_OWNER);
+                    boolean owned = current > 0 && current >>> 16 == fileId || current == (OFFERED | fileId);
+                    if (slots.getLong(at + S_KEY) != 0 && owned) {
+                        slots.putLong(at + S_OWNER, RELEASED);
+                    }
+                }
+            }
+        }
+    }
+
+    // Distinct ids in the index
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    private static boolean isEarlierAttempt(long current, long owner) {
+        return current >>> 16 == owner >>> 16 && (current & 0xffff) < (owner & 0xffff);
+    }
+
+    // 0 marks an empty slot, so the one id hash that is 0 shares a slot with the one that is 1
+    private static long key(long idHash) {
+        return idHash == 0 ? 1 : idHash;
+    }
+
+    private Stripe stripe(long idHash) {
+        return stripes[(int) (idHash >>> stripeShift)];
+    }
+
+    private static final class Stripe {
+        private ByteBuffer slots = ByteBuffer.allocateDirect(INITIAL_SLOTS_PER_STRIPE * SLOT_SIZE);
+        private int capacity = INITIAL_SLOTS_PER_STRIPE;
+        private int size;
+
+        // Byte offset of the key's slot, or -1
+        int find(long key) {
+            int mask = capacity - 1;
+            for (int slot = (int) key & mask; ; slot = (slot + 1) & mask) {
+                long current = slots.getLong(slot * SLOT_SIZE + S_KEY);
+                if (current == key) {
+                    return slot * SLOT_SIZE;
+                }
+                if (current == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        // Byte offset of the key's slot, inserting the key with zeroed fields if it is not there
+        int findOrInsert(long key) {
+            if (size + 1 > capacity - (capacity >>> 2)) {
+                resize();
+            }
+            int mask = capacity - 1;
+            for (int slot = (int) key & mask; ; slot = (slot + 1) & mask) {
+                int at = slot * SLOT_SIZE;
+                long current = slots.getLong(at + S_KEY);
+                if (current == key) {
+                    return at;
+                }
+                if (current == 0) {
+                    slots.putLong(at + S_KEY, key);
+                    size++;
+                    return at;
+                }
+            }
+        }
+
+        private void resize() {
+            ByteBuffer old = slots;
+            int oldCapacity = capacity;
+            capacity = oldCapacity * 2;
+            slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+            int mask = capacity - 1;
+            for (int from = 0; from < oldCapacity * SLOT_SIZE; from += SLOT_SIZE) {
+                long key = old.getLong(from + S_KEY);
+                if (key != 0) {
+                    int slot = (int) key & mask;
+                    while (slots.getLong(slot * SLOT_SIZE + S_KEY) != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots.put(slot * SLOT_SIZE, old, from, SLOT_SIZE);
+                }
+            }
+        }
+    }
+}
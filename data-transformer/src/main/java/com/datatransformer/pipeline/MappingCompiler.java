@@ -0,0 +1,310 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.pipeline.interfaces.Transformer;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiles a {@link MappingSpec} into a {@link Transformer} by generating a class whose {@code transform} method
+ * is what one would write by hand: direct accessor calls along each source path, a null check between the steps,
+ * the default where the value is null, and a call to the target record's canonical constructor. Properties are
+ * resolved once here, so transforming a record involves no reflection and the JIT treats the generated code like
+ * any other.
+ *
+ * <p>Source properties are public record accessors or getters ({@code getX}/{@code isX}) on public classes; the
+ * target must be a public record.
+ */
+public final class MappingCompiler {
+
+    private MappingCompiler() {
+    }
+
+    // A target field's value: the accessors along its source path (empty for a constant) and the default
+    private record Argument(Class<?> type, List<Method> path, Object defaultValue) {
+    }
+
+    public static <I, O> Transformer<I, O> compile(MappingSpec spec, Class<I> sourceType, Class<O> targetType) {
+        if (!targetType.isRecord()) {
+            throw new IllegalArgumentException("Mapping target must be a record: " + targetType.getName());
+        }
+        requirePublic(sourceType);
+        requirePublic(targetType);
+        Map<String, MappingSpec.Field> fields = new HashMap<>();
+        for (MappingSpec.Field field : spec.fields()) {
+            fields.put(field.target(), field);
+        }
+
+        RecordComponent[] components = targetType.getRecordComponents();
+        Argument[] arguments = new Argument[components.length];
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameterTypes[i] = components[i].getType();
+            MappingSpec.Field field = fields.remove(components[i].getName());
+            arguments[i] = field == null ? new Argument(parameterTypes[i], List.of(), null)
+                    : argument(field, sourceType, parameterTypes[i]);
+        }
+        if (!fields.isEmpty()) {
+            throw new IllegalArgumentException("Unknown target fields on " + targetType.getSimpleName() + ": "
+                    + fields.keySet());
+        }
+
+        try {
+            Constructor<O> constructor = targetType.getConstructor(parameterTypes);
+            return define(sourceType, constructor, arguments);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("No public canonical constructor on " + targetType.getName(), e);
+        }
+    }
+
+    private static Argument argument(MappingSpec.Field field, Class<?> sourceType, Class<?> type) {
+        Object defaultValue = convert(field, type);
+        if (field.source() == null) {
+            return new Argument(type, List.of(), defaultValue);
+        }
+        List<Method> path = new ArrayList<>();
+        Class<?> owner = sourceType;
+        for (String property : field.source().split("\\.", -1)) {
+            Method accessor = accessor(owner, property, field);
+            path.add(accessor);
+            owner = accessor.getReturnType();
+        }
+        if (!box(type).isAssignableFrom(box(owner))) {
+            throw new IllegalArgumentException("Source '" + field.source() + "' is a " + owner.getSimpleName()
+                    + " and cannot be assigned to target field '" + field.target() + "' of type "
+                    + type.getSimpleName());
+        }
+        return new Argument(type, path, defaultValue);
+    }
+
+    private static Method accessor(Class<?> owner, String property, MappingSpec.Field field) {
+        if (owner.isPrimitive() || owner == String.class) {
+            throw new IllegalArgumentException("Source '" + field.source() + "' reads '" + property + "' from a "
+                    + owner.getSimpleName());
+        }
+        requirePublic(owner);
+        String capitalized = property.isEmpty() ? property
+                : property.substring(0, 1).toUpperCase(Locale.ROOT) + property.substring(1);
+        for (String name : new String[] { property, "get" + capitalized, "is" + capitalized }) {
+            try {
+                Method method = owner.getMethod(name);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class
+                        && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // Try the next naming convention
+            }
+        }
+        throw new IllegalArgumentException("Unknown property '" + property + "' on " + owner.getSimpleName()
+                + " in source '" + field.source() + "' of target field '" + field.target() + "'");
+    }
+
+    private static void requirePublic(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers())) {
+            throw new IllegalArgumentException("Mapped class must be public: " + type.getName());
+        }
+    }
+
+    // Defaults are limited to types that can be loaded as constants
+    private static Object convert(MappingSpec.Field field, Class<?> type) {
+        Object value = field.defaultValue();
+        Class<?> boxed = box(type);
+        if (value == null || boxed.isInstance(value) && (boxed == String.class || boxed == Boolean.class
+                || boxed == Integer.class || boxed == Long.class || boxed == Double.class)) {
+            return value;
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        if (boxed == Boolean.class && value instanceof String text
+                && (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false"))) {
+            return Boolean.valueOf(text);
+        }
+        if (value instanceof Number number) {
+            if (boxed == Long.class) {
+                return number.longValue();
+            }
+            if (boxed == Integer.class) {
+                return number.intValue();
+            }
+            if (boxed == Double.class) {
+                return number.doubleValue();
+            }
+        }
+        throw new IllegalArgumentException("Default '" + value + "' of target field '" + field.target()
+                + "' is not a " + type.getSimpleName());
+    }
+
+    private static Class<?> box(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I, O> Transformer<I, O> define(Class<I> sourceType, Constructor<O> constructor,
+            Argument[] arguments) {
+        String name = MappingCompiler.class.getName().replace('.', '/') + "$Compiled";
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC, name, null,
+                "java/lang/Object", new String[] { Type.getInternalName(Transformer.class) });
+
+        MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        // Each argument is computed into a local, then the target is constructed from the locals. Objects along
+        // the paths are read once into locals of their own, so fields of a nested object share one null check.
+        MethodVisitor code = writer.visitMethod(Opcodes.ACC_PUBLIC, "transform",
+                "(Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+        code.visitCode();
+        code.visitVarInsn(Opcodes.ALOAD, 1);
+        code.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(sourceType));
+        code.visitVarInsn(Opcodes.ASTORE, 2);
+        int[] locals = new int[arguments.length];
+        Map<List<Method>, Integer> parents = new HashMap<>();
+        parents.put(List.of(), 2);
+        int next = 3;
+        for (Argument argument : arguments) {
+            for (int depth = 1; depth < argument.path().size(); depth++) {
+                List<Method> prefix = argument.path().subList(0, depth);
+                if (!parents.containsKey(prefix)) {
+                    Label isNull = new Label();
+                    code.visitVarInsn(Opcodes.ALOAD, parents.get(prefix.subList(0, depth - 1)));
+                    if (depth > 1) {
+                        code.visitInsn(Opcodes.DUP);
+                        code.visitJumpInsn(Opcodes.IFNULL, isNull);
+                    }
+                    invoke(code, prefix.get(depth - 1));
+                    code.visitLabel(isNull);
+                    code.visitVarInsn(Opcodes.ASTORE, next);
+                    parents.put(prefix, next++);
+                }
+            }
+        }
+        for (int i = 0; i < arguments.length; i++) {
+            Type type = Type.getType(arguments[i].type());
+            pushArgument(code, arguments[i], parents);
+            locals[i] = next;
+            code.visitVarInsn(type.getOpcode(Opcodes.ISTORE), next);
+            next += type.getSize();
+        }
+        String target = Type.getInternalName(constructor.getDeclaringClass());
+        code.visitTypeInsn(Opcodes.NEW, target);
+        code.visitInsn(Opcodes.DUP);
+        for (int i = 0; i < arguments.length; i++) {
+            code.visitVarInsn(Type.getType(arguments[i].type()).getOpcode(Opcodes.ILOAD), locals[i]);
+        }
+        code.visitMethodInsn(Opcodes.INVOKESPECIAL, target, "<init>", Type.getConstructorDescriptor(constructor),
+                false);
+        code.visitInsn(Opcodes.ARETURN);
+        code.visitMaxs(0, 0);
+        code.visitEnd();
+        writer.visitEnd();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(writer.toByteArray(), true);
+            return (Transformer<I, O>) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to define the compiled transformer", e);
+        }
+    }
+
+    // Leaves the argument's value on the stack: the last accessor applied to its parent object, or the default if
+    // the parent or the value is null
+    private static void pushArgument(MethodVisitor code, Argument argument, Map<List<Method>, Integer> parents) {
+        Class<?> type = argument.type();
+        List<Method> path = argument.path();
+        if (path.isEmpty()) {
+            pushConstant(code, type, argument.defaultValue());
+            return;
+        }
+        Label isNull = new Label();
+        Label done = new Label();
+        code.visitVarInsn(Opcodes.ALOAD, parents.get(path.subList(0, path.size() - 1)));
+        boolean checked = false;
+        if (path.size() > 1) {
+            code.visitInsn(Opcodes.DUP);
+            code.visitJumpInsn(Opcodes.IFNULL, isNull);
+            checked = true;
+        }
+        Method accessor = path.get(path.size() - 1);
+        invoke(code, accessor);
+        // A null value only needs handling if it is replaced or unboxed
+        if (!accessor.getReturnType().isPrimitive() && (argument.defaultValue() != null || type.isPrimitive())) {
+            code.visitInsn(Opcodes.DUP);
+            code.visitJumpInsn(Opcodes.IFNULL, isNull);
+            checked = true;
+        }
+        convert(code, accessor.getReturnType(), type);
+        if (!checked) {
+            return;
+        }
+        code.visitJumpInsn(Opcodes.GOTO, done);
+        code.visitLabel(isNull);
+        code.visitInsn(Opcodes.POP);
+        pushConstant(code, type, argument.defaultValue());
+        code.visitLabel(done);
+    }
+
+    private static void invoke(MethodVisitor code, Method accessor) {
+        Class<?> owner = accessor.getDeclaringClass();
+        code.visitMethodInsn(owner.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL,
+                Type.getInternalName(owner), accessor.getName(), Type.getMethodDescriptor(accessor),
+                owner.isInterface());
+    }
+
+    // Boxes or unboxes a value that is not null
+    private static void convert(MethodVisitor code, Class<?> from, Class<?> to) {
+        if (from.isPrimitive() && !to.isPrimitive()) {
+            Class<?> boxed = box(from);
+            code.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(boxed), "valueOf",
+                    Type.getMethodDescriptor(Type.getType(boxed), Type.getType(from)), false);
+        } else if (!from.isPrimitive() && to.isPrimitive()) {
+            String boxed = Type.getInternalName(box(to));
+            code.visitTypeInsn(Opcodes.CHECKCAST, boxed);
+            code.visitMethodInsn(Opcodes.INVOKEVIRTUAL, boxed, to.getName() + "Value",
+                    Type.getMethodDescriptor(Type.getType(to)), false);
+        }
+    }
+
+    private static void pushConstant(MethodVisitor code, Class<?> type, Object value) {
+        if (value == null) {
+            switch (Type.getType(type).getSort()) {
+                case Type.OBJECT, Type.ARRAY -> code.visitInsn(Opcodes.ACONST_NULL);
+                case Type.LONG -> code.visitInsn(Opcodes.LCONST_0);
+                case Type.FLOAT -> code.visitInsn(Opcodes.FCONST_0);
+                case Type.DOUBLE -> code.visitInsn(Opcodes.DCONST_0);
+                default -> code.visitInsn(Opcodes.ICONST_0);
+            }
+            return;
+        }
+        if (value instanceof Boolean bool) {
+            code.visitInsn(bool ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+        } else {
+            code.visitLdcInsn(value);
+        }
+        // Strings are loaded as they are; everything else is loaded as a primitive and boxed if need be
+        if (!(value instanceof String) && !type.isPrimitive()) {
+            convert(code, MethodType.methodType(value.getClass()).unwrap().returnType(), type);
+        }
+    }
+}
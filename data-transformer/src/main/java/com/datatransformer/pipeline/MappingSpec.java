@@ -0,0 +1,86 @@
+package com.datatransformer.pipeline;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Declarative mapping from a source type to a target record, read from YAML or JSON (which is valid YAML):
+ *
+ * <pre>
+ * fields:
+ *   - target: externalId                         # rename
+ *     source: userPrincipalName
+ *   - target: lastSignInDateTime                 # flatten a nested property
+ *     source: signInActivity.lastSignInDateTime
+ *   - target: location                           # fall back to a default when the source is null
+ *     source: usageLocation
+ *     default: US
+ * </pre>
+ *
+ * A field without {@code source} reads the source property of the same name, one with only {@code default} is a
+ * constant, and target fields that are not listed stay null. {@link MappingCompiler} turns a spec into a
+ * {@code Transformer}.
+ */
+public record MappingSpec(List<Field> fields) {
+
+    public MappingSpec {
+        Set<String> targets = new HashSet<>();
+        for (Field field : fields) {
+            if (!targets.add(field.target())) {
+                throw new IllegalArgumentException("Target field mapped twice: " + field.target());
+            }
+        }
+        fields = List.copyOf(fields);
+    }
+
+    /**
+     * @param source dotted property path on the source object, or null for a constant
+     * @param defaultValue used when the source value, or any property on its path, is null
+     */
+    public record Field(String target, String source, Object defaultValue) {
+
+        public Field {
+            if (target == null || target.isBlank()) {
+                throw new IllegalArgumentException("Mapped field has no target");
+            }
+        }
+    }
+
+    public static MappingSpec parse(InputStream input) {
+        Object document = new Yaml().load(input);
+        if (!(document instanceof Map<?, ?> root) || !(root.get("fields") instanceof List<?> entries)) {
+            throw new IllegalArgumentException("Mapping must be a document with a 'fields' list");
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Object entry : entries) {
+            if (!(entry instanceof Map<?, ?> field)) {
+                throw new IllegalArgumentException("Mapped field must be a map: " + entry);
+            }
+            for (Object key : field.keySet()) {
+                if (!"target".equals(key) && !"source".equals(key) && !"default".equals(key)) {
+                    throw new IllegalArgumentException("Unknown key '" + key + "' in mapped field: " + field);
+                }
+            }
+            String target = string(field, "target");
+            Object defaultValue = field.get("default");
+            String source = field.containsKey("source") ? string(field, "source")
+                    : field.containsKey("default") ? null : target;
+            fields.add(new Field(target, source, defaultValue));
+        }
+        return new MappingSpec(fields);
+    }
+
+    private static String string(Map<?, ?> field, String key) {
+        Object value = field.get(key);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("'" + key + "' must be a string in mapped field: " + field);
+        }
+        return (String) value;
+    }
+}
@@ -0,0 +1,149 @@
+package com.datatransformer.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The directory a run publishes its outputs to. Each output is written to a hidden in-progress file next to it,
+ * or directory for partitioning sinks, and renamed into place once complete, so an output name never refers to a
+ * partial file. In-progress files left behind by an earlier process are deleted on open.
+ *
+ * <p>With a {@link CommitJournal}, outputs and renames are forced to disk before an input is journaled as
+ * committed, and an input that was committed before a crash or restart is recognised when it is found again.
+ */
+public final class OutputDirectory implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutputDirectory.class);
+    private static final String IN_PROGRESS_PREFIX = ".inprogress.";
+
+    private final Path directory;
+    private final CommitJournal journal;
+
+    private OutputDirectory(Path directory, CommitJournal journal) {
+        this.directory = directory;
+        this.journal = journal;
+    }
+
+    // Without a journal file, outputs are published but not journaled
+    public static OutputDirectory open(Path directory, Path journalFile) throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().startsWith(IN_PROGRESS_PREFIX)) {
+                    deleteRecursively(file);
+                }
+            }
+        }
+        return new OutputDirectory(directory, journalFile == null ? null : CommitJournal.open(journalFile));
+    }
+
+    // Where the output is written until it is published
+    public Path inProgress(String outputName) {
+        return directory.resolve(IN_PROGRESS_PREFIX + outputName);
+    }
+
+    public boolean isCommitted(String inputName, long size, long lastModified) {
+        return journal != null && journal.contains(inputName, size, lastModified);
+    }
+
+    // The journal entry is the commit point: from here on a restart skips the input
+    public void commit(String inputName, long size, long lastModified, String outputName) throws IOException {
+        if (journal != null) {
+            journal.commit(inputName, size, lastModified, outputName);
+        }
+    }
+
+    /**
+     * Renames the in-progress output into place, replacing an earlier output of the same name, and returns its
+     * size. A sink that produced no file leaves nothing to publish.
+     */
+    public long publish(String outputName) throws IOException {
+        Path inProgressFile = inProgress(outputName);
+        if (!Files.exists(inProgressFile)) {
+            return 0;
+        }
+        List<Path> files = outputFiles(inProgressFile);
+        long size = 0;
+        for (Path file : files) {
+            size += Files.size(file);
+        }
+        if (journal != null) {
+            // Output and rename must be durable before the journal entry can claim the file is done
+            for (Path file : files) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            if (Files.isDirectory(inProgressFile)) {
+                forceDirectory(inProgressFile);
+            }
+        }
+        replace(inProgressFile, directory.resolve(outputName));
+        if (journal != null) {
+            forceDirectory(directory);
+        }
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private static List<Path> outputFiles(Path output) throws IOException {
+        if (!Files.isDirectory(output)) {
+            return List.of(output);
+        }
+        try (Stream<Path> files = Files.list(output)) {
+            return files.toList();
+        }
+    }
+
+    // A rename cannot replace a non-empty directory, so an earlier output directory is renamed aside first
+    private static void replace(Path source, Path target) throws IOException {
+        Path replaced = null;
+        if (Files.isDirectory(target)) {
+            replaced = target.resolveSibling(IN_PROGRESS_PREFIX + "replaced." + target.getFileName());
+            deleteRecursively(replaced);
+            Files.move(target, replaced, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (replaced != null) {
+            deleteRecursively(replaced);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // Makes a rename in the directory durable; not every platform can open a directory for this
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not force directory {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.pipeline.interfaces.Transformer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Fans batches out to a worker pool for transformation while the consuming thread keeps reading.
+ * At most {@code maxInFlight} batches are queued or running at any time, which bounds memory.
+ */
+public final class ParallelTransform {
+
+    private ParallelTransform() {
+    }
+
+    // Hands out the transformed batches and reports each batch's transform time and the batches in flight
+    public static <I, O> Stream<List<O>> applyBatches(Stream<List<I>> batches,
+            Transformer<I, O> transformer,
+            ExecutorService executor,
+            int maxInFlight,
+            boolean ordered,
+            StageMetrics metrics) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        BatchIterator<I, O> iterator = ordered
+                ? new OrderedBatchIterator<>(batches.iterator(), transformer, executor, maxInFlight, metrics)
+                : new UnorderedBatchIterator<>(batches.iterator(), transformer, executor, maxInFlight, metrics);
+
+        int characteristics = ordered ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL;
+        IntSupplier depth = iterator::inFlight;
+        metrics.queueOpened(StageMetrics.BatchQueue.IN_FLIGHT, depth);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false)
+                .onClose(iterator::cancel)
+                .onClose(() -> metrics.queueClosed(StageMetrics.BatchQueue.IN_FLIGHT, depth))
+                .onClose(batches::close);
+    }
+
+    public static <I, O> List<O> transformBatch(List<I> batch, Transformer<I, O> transformer, StageMetrics metrics) {
+        long start = System.nanoTime();
+        List<O> result = new ArrayList<>(batch.size());
+        for (I item : batch) {
+            result.add(transformer.transform(item));
+        }
+        metrics.transformed(System.nanoTime() - start, batch.size());
+        return result;
+    }
+
+    private static <O> List<O> await(Future<List<O>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch transformation", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Batch transformation failed", cause);
+        }
+    }
+
+    private abstract static class BatchIterator<I, O> implements Iterator<List<O>> {
+        final Iterator<List<I>> source;
+        final Transformer<I, O> transformer;
+        final int maxInFlight;
+        final StageMetrics metrics;
+        // Written only by the consuming thread, read by the gauge
+        volatile int inFlight;
+
+        BatchIterator(Iterator<List<I>> source, Transformer<I, O> transformer, int maxInFlight,
+                StageMetrics metrics) {
+            this.source = source;
+            this.transformer = transformer;
+            this.maxInFlight = maxInFlight;
+            this.metrics = metrics;
+        }
+
+        int inFlight() {
+            return inFlight;
+        }
+
+        abstract void cancel();
+    }
+
+    // Results are handed out in submission order, so output order matches input order
+    private static final class OrderedBatchIterator<I, O> extends BatchIterator<I, O> {
+        private final ExecutorService executor;
+        private final Deque<Future<List<O>>> pending = new ArrayDeque<>();
+
+        OrderedBatchIterator(Iterator<List<I>> source, Transformer<I, O> transformer, ExecutorService executor,
+                int maxInFlight, StageMetrics metrics) {
+            super(source, transformer, maxInFlight, metrics);
+            this.executor = executor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public List<O> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Future<List<O>> future = pending.removeFirst();
+            inFlight = pending.size();
+            return await(future);
+        }
+
+        private void fill() {
+            while (pending.size() < maxInFlight && source.hasNext()) {
+                List<I> batch = source.next();
+                pending.addLast(executor.submit(() -> transformBatch(batch, transformer, metrics)));
+                inFlight = pending.size();
+            }
+        }
+
+        @Override
+        void cancel() {
+            pending.forEach(future -> future.cancel(true));
+            pending.clear();
+            inFlight = 0;
+        }
+    }
+
+    // Results are handed out as soon as any batch completes
+    private static final class UnorderedBatchIterator<I, O> extends BatchIterator<I, O> {
+        private final CompletionService<List<O>> completionService;
+        private final List<Future<List<O>>> submitted = new ArrayList<>();
+
+        UnorderedBatchIterator(Iterator<List<I>> source, Transformer<I, O> transformer, ExecutorService executor,
+                int maxInFlight, StageMetrics metrics) {
+            super(source, transformer, maxInFlight, metrics);
+            this.completionService = new ExecutorCompletionService<>(executor);
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return inFlight > 0;
+        }
+
+        @Override
+        public List<O> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                Future<List<O>> future = completionService.take();
+                inFlight--;
+                submitted.remove(future);
+                return await(future);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for batch transformation", e);
+            }
+        }
+
+        private void fill() {
+            while (inFlight < maxInFlight && source.hasNext()) {
+                List<I> batch = source.next();
+                submitted.add(completionService.submit(() -> transformBatch(batch, transformer, metrics)));
+                inFlight++;
+            }
+        }
+
+        @Override
+        void cancel() {
+            submitted.forEach(future -> future.cancel(true));
+            submitted.clear();
+            inFlight = 0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.RawSignInActivity;
+import com.datatransformer.model.RawUser;
+
+import java.io.IOException;
+
+/**
+ * Binary record format for {@link RawUser}, with {@code userType} and {@code usageLocation} dictionary-coded.
+ * The nested {@code signInActivity} is flattened into a presence flag followed by its three timestamps.
+ */
+public final class RawUserCodec implements RecordCodec<RawUser> {
+
+    public static final int ID = 0;
+    public static final int USER_PRINCIPAL_NAME = 1;
+    public static final int MAIL = 2;
+    public static final int USER_TYPE = 3;
+    public static final int USAGE_LOCATION = 4;
+    public static final int ACCOUNT_ENABLED = 5;
+    public static final int GIVEN_NAME = 6;
+    public static final int SURNAME = 7;
+    public static final int HAS_SIGN_IN_ACTIVITY = 8;
+    public static final int LAST_SIGN_IN = 9;
+    public static final int LAST_SUCCESSFUL_SIGN_IN = 10;
+    public static final int LAST_NON_INTERACTIVE_SIGN_IN = 11;
+
+    @Override
+    public void write(RawUser user, BinaryRecordWriter out) throws IOException {
+        out.writeString(user.id());
+        out.writeString(user.userPrincipalName());
+        out.writeString(user.mail());
+        out.writeDictionaryString(user.userType());
+        out.writeDictionaryString(user.usageLocation());
+        out.writeBoolean(user.accountEnabled());
+        out.writeString(user.givenName());
+        out.writeString(user.surname());
+        RawSignInActivity activity = user.signInActivity();
+        out.writeBoolean(activity != null);
+        if (activity != null) {
+            out.writeString(activity.lastSignInDateTime());
+            out.writeString(activity.lastSuccessfulSignInDateTime());
+            out.writeString(activity.lastNonInteractiveSignInDateTime());
+        }
+        out.endRecord();
+    }
+
+    @Override
+    public RawUser read(BinaryRecord record) {
+        RawSignInActivity activity = Boolean.TRUE.equals(record.bool(HAS_SIGN_IN_ACTIVITY))
+                ? new RawSignInActivity(record.string(LAST_SIGN_IN), record.string(LAST_SUCCESSFUL_SIGN_IN),
+                        record.string(LAST_NON_INTERACTIVE_SIGN_IN))
+                : null;
+        return new RawUser(record.string(ID), record.string(USER_PRINCIPAL_NAME), record.string(MAIL),
+                record.string(USER_TYPE), record.string(USAGE_LOCATION), record.bool(ACCOUNT_ENABLED),
+                record.string(GIVEN_NAME), record.string(SURNAME), activity);
+    }
+}
@@ -0,0 +1,13 @@
+package com.datatransformer.pipeline;
+
+import java.io.IOException;
+
+/**
+ * Maps a record type to the binary record format of {@link BinaryRecordWriter} and back.
+ */
+public interface RecordCodec<T> {
+    // Writes the record's fields and ends the record
+    void write(T record, BinaryRecordWriter out) throws IOException;
+
+    T read(BinaryRecord record);
+}
@@ -0,0 +1,88 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.interfaces.Sink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One run whose outputs are merged into a single output sorted by {@code Id}. Each file is written as a sink
+ * into a run directory of its own, see {@link ExternalSorter}, and {@link #add added} once complete; its input is
+ * committed and moved only when the merged output is published.
+ */
+public final class SortedRun implements Sink<TargetUser, Path>, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SortedRun.class);
+
+    private final ExternalSorter<TargetUser> sorter;
+    private final Queue<Input> inputs = new ConcurrentLinkedQueue<>();
+
+    private SortedRun(ExternalSorter<TargetUser> sorter) {
+        this.sorter = sorter;
+    }
+
+    public static SortedRun open(Path spillParent, long memoryBudget, int spillThreads) throws IOException {
+        return new SortedRun(ExternalSorter.open(spillParent, new TargetUserCodec(), TargetUserCodec.BY_ID,
+                TargetUserCodec.RECORDS_BY_ID, TargetUserCodec::estimatedSize, memoryBudget, spillThreads));
+    }
+
+    // Where the runs of an input are spilled
+    public Path runDirectory(String inputName) {
+        return sorter.runDirectory(inputName);
+    }
+
+    @Override
+    public void write(Stream<TargetUser> users, Path runDirectory) throws IOException {
+        sorter.write(users, runDirectory);
+    }
+
+    // Adds the runs of a completely written input to the merge
+    public void add(Path inputFile, long size, long lastModified) throws IOException {
+        sorter.add(sorter.runDirectory(inputFile.getFileName().toString()));
+        inputs.add(new Input(inputFile, size, lastModified));
+    }
+
+    /**
+     * Merges the runs of every added input into one output ordered by Id, then commits and moves those inputs.
+     * Files that failed were never added. If the merge fails, its inputs stay in the input directory and the next
+     * run sorts them again.
+     */
+    public void finish(Sink<TargetUser, Path> sink, OutputDirectory output, String outputName, Path processedDir)
+            throws IOException {
+        if (inputs.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (Stream<TargetUser> merged = sorter.merge()) {
+            sink.write(merged, output.inProgress(outputName));
+        }
+        output.publish(outputName);
+        for (Input input : inputs) {
+            String inputName = input.file().getFileName().toString();
+            output.commit(inputName, input.size(), input.lastModified(), outputName);
+            Files.move(input.file(), processedDir.resolve(inputName), StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Merged {} runs from {} files into {} in {} ms", sorter.runCount(), inputs.size(), outputName,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // Deletes the spilled runs
+    @Override
+    public void close() throws IOException {
+        inputs.clear();
+        sorter.close();
+    }
+
+    private record Input(Path file, long size, long lastModified) {
+    }
+}
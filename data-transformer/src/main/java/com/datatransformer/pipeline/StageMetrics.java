@@ -0,0 +1,104 @@
+package com.datatransformer.pipeline;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Receives the time spent per batch in each pipeline stage. Recording per batch rather than per record keeps
+ * the cost of timing negligible; implementations must not allocate per call.
+ */
+public interface StageMetrics {
+
+    StageMetrics NONE = new StageMetrics() {
+    };
+
+    // Queues of batches between stages
+    enum BatchQueue {
+        // Staged pipeline: read and waiting for a transformer
+        READ,
+        // Staged pipeline: transformed and waiting for the writer
+        TRANSFORMED,
+        // Parallel transform: submitted to the pool and not yet handed to the writer
+        IN_FLIGHT
+    }
+
+    default void read(long nanos, int records) {
+    }
+
+    default void transformed(long nanos, int records) {
+    }
+
+    default void written(long nanos, int records) {
+    }
+
+    // A queue opened by a transfer; its depth is sampled until the transfer closes it
+    default void queueOpened(BatchQueue queue, IntSupplier depth) {
+    }
+
+    default void queueClosed(BatchQueue queue, IntSupplier depth) {
+    }
+
+    // Times how long each batch takes to come out of the stream, i.e. to be read and parsed
+    static <T> Stream<List<T>> timeReads(Stream<List<T>> batches, StageMetrics metrics) {
+        Iterator<List<T>> source = batches.iterator();
+        Iterator<List<T>> timed = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                long start = System.nanoTime();
+                List<T> batch = source.next();
+                metrics.read(System.nanoTime() - start, batch.size());
+                return batch;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(timed, Spliterator.ORDERED), false)
+                .onClose(batches::close);
+    }
+
+    // Times what the consumer does with each batch, from handing it out until the next one is asked for, and
+    // flattens the batches
+    static <T> Stream<T> timeWrites(Stream<List<T>> batches, StageMetrics metrics) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(timeWrites(batches.iterator(), metrics),
+                Spliterator.ORDERED), false)
+                .flatMap(List::stream)
+                .onClose(batches::close);
+    }
+
+    static <T> Iterator<List<T>> timeWrites(Iterator<List<T>> batches, StageMetrics metrics) {
+        return new Iterator<>() {
+            private long handedOutAt;
+            private int handedOut;
+
+            @Override
+            public boolean hasNext() {
+                finishPrevious();
+                return batches.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                finishPrevious();
+                List<T> batch = batches.next();
+                handedOut = batch.size();
+                handedOutAt = System.nanoTime();
+                return batch;
+            }
+
+            private void finishPrevious() {
+                if (handedOutAt != 0) {
+                    metrics.written(System.nanoTime() - handedOutAt, handedOut);
+                    handedOutAt = 0;
+                }
+            }
+        };
+    }
+}
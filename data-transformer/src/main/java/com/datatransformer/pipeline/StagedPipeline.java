@@ -0,0 +1,259 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.pipeline.interfaces.Sink;
+import com.datatransformer.pipeline.interfaces.Source;
+import com.datatransformer.pipeline.interfaces.Transformer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs one source-to-sink transfer as three stages connected by bounded queues of record batches:
+ * a reader thread that pulls from the {@link Source}, {@code transformers} threads that apply the
+ * {@link Transformer}, and the calling thread, which feeds the results to the {@link Sink}. Reading,
+ * transforming and writing therefore overlap even within a single file.
+ *
+ * <p>A batch holds a permit from the moment it is read until it has been handed to the sink, so at most
+ * {@code 2 * queueCapacity + transformers} batches exist at any time, whether or not order is preserved.
+ * The executor must be able to run {@code transformers + 1} tasks at once (e.g. a cached thread pool).
+ */
+public final class StagedPipeline<I, O> {
+
+    private static final long FAILURE_CHECK_INTERVAL_MILLIS = 100;
+
+    private final Transformer<I, O> transformer;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final int transformers;
+    private final int queueCapacity;
+    private final boolean ordered;
+    private final StageMetrics metrics;
+
+    public StagedPipeline(Transformer<I, O> transformer, ExecutorService executor, int batchSize, int transformers,
+            int queueCapacity, boolean ordered) {
+        this(transformer, executor, batchSize, transformers, queueCapacity, ordered, StageMetrics.NONE);
+    }
+
+    public StagedPipeline(Transformer<I, O> transformer, ExecutorService executor, int batchSize, int transformers,
+            int queueCapacity, boolean ordered, StageMetrics metrics) {
+        if (batchSize <= 0 || transformers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("batchSize, transformers and queueCapacity must be positive");
+        }
+        this.transformer = transformer;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.transformers = transformers;
+        this.queueCapacity = queueCapacity;
+        this.ordered = ordered;
+        this.metrics = metrics;
+    }
+
+    public <C, D> void run(Source<I, C> source, C input, Sink<O, D> sink, D output) throws IOException {
+        Run<C> run = new Run<>(source, input);
+        IntSupplier readDepth = run.read::size;
+        IntSupplier transformedDepth = run.transformed::size;
+        metrics.queueOpened(StageMetrics.BatchQueue.READ, readDepth);
+        metrics.queueOpened(StageMetrics.BatchQueue.TRANSFORMED, transformedDepth);
+        try (Stream<O> results = run.start()) {
+            sink.write(results, output);
+        } finally {
+            run.cancel();
+            metrics.queueClosed(StageMetrics.BatchQueue.READ, readDepth);
+            metrics.queueClosed(StageMetrics.BatchQueue.TRANSFORMED, transformedDepth);
+        }
+        run.rethrowFailure();
+    }
+
+    // Batches carry their read sequence so the writer can restore input order
+    private record Batch<T>(long sequence, List<T> items) {
+    }
+
+    private final class Run<C> {
+        private final Batch<I> endOfInput = new Batch<>(-1, List.of());
+        private final Batch<O> endOfOutput = new Batch<>(-1, List.of());
+
+        private final Source<I, C> source;
+        private final C input;
+        private final BlockingQueue<Batch<I>> read = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<Batch<O>> transformed = new ArrayBlockingQueue<>(queueCapacity);
+        private final Semaphore batchPermits = new Semaphore(2 * queueCapacity + transformers);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final List<Future<?>> stages = new CopyOnWriteArrayList<>();
+
+        Run(Source<I, C> source, C input) {
+            this.source = source;
+            this.input = input;
+        }
+
+        Stream<O> start() {
+            stages.add(executor.submit(this::readStage));
+            for (int i = 0; i < transformers; i++) {
+                stages.add(executor.submit(this::transformStage));
+            }
+            Iterator<List<O>> batches = StageMetrics.timeWrites(ordered ? new OrderedResults() : new Results(), metrics);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.NONNULL), false)
+                    .flatMap(List::stream);
+        }
+
+        private void readStage() {
+            try {
+                try (Stream<I> records = source.read(input)) {
+                    Iterator<I> iterator = records.iterator();
+                    long sequence = 0;
+                    while (iterator.hasNext()) {
+                        long start = System.nanoTime();
+                        List<I> batch = new ArrayList<>(batchSize);
+                        while (batch.size() < batchSize && iterator.hasNext()) {
+                            batch.add(iterator.next());
+                        }
+                        metrics.read(System.nanoTime() - start, batch.size());
+                        batchPermits.acquire();
+                        read.put(new Batch<>(sequence++, batch));
+                    }
+                }
+                for (int i = 0; i < transformers; i++) {
+                    read.put(endOfInput);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                fail(new UncheckedIOException(e));
+            } catch (RuntimeException | Error e) {
+                fail(e);
+            }
+        }
+
+        private void transformStage() {
+            try {
+                Batch<I> batch;
+                while ((batch = read.take()) != endOfInput) {
+                    List<O> results = ParallelTransform.transformBatch(batch.items(), transformer, metrics);
+                    transformed.put(new Batch<>(batch.sequence(), results));
+                }
+                transformed.put(endOfOutput);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | Error e) {
+                fail(e);
+            }
+        }
+
+        // The first failure stops the other stages; the writer picks it up while waiting for output
+        private void fail(Throwable e) {
+            if (failure.compareAndSet(null, e)) {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            for (Future<?> stage : stages) {
+                stage.cancel(true);
+            }
+        }
+
+        void rethrowFailure() {
+            Throwable e = failure.get();
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+
+        Batch<O> takeTransformed() {
+            try {
+                Batch<O> batch;
+                while ((batch = transformed.poll(FAILURE_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                    rethrowFailure();
+                }
+                return batch;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for transformed records", e);
+            }
+        }
+
+        // Hands batches to the sink in completion order
+        private class Results implements Iterator<List<O>> {
+            private int finishedTransformers;
+            private Batch<O> next;
+
+            @Override
+            public boolean hasNext() {
+                return pull();
+            }
+
+            @Override
+            public List<O> next() {
+                List<O> items = nextBatch().items();
+                batchPermits.release();
+                return items;
+            }
+
+            final boolean pull() {
+                while (next == null && finishedTransformers < transformers) {
+                    Batch<O> batch = takeTransformed();
+                    if (batch == endOfOutput) {
+                        finishedTransformers++;
+                    } else {
+                        next = batch;
+                    }
+                }
+                return next != null;
+            }
+
+            final Batch<O> nextBatch() {
+                if (!pull()) {
+                    throw new NoSuchElementException();
+                }
+                Batch<O> batch = next;
+                next = null;
+                return batch;
+            }
+        }
+
+        // Holds batches that finish early until all batches before them have been handed to the sink
+        private final class OrderedResults extends Results {
+            private final Map<Long, List<O>> pending = new HashMap<>();
+            private long nextSequence;
+
+            @Override
+            public boolean hasNext() {
+                while (!pending.containsKey(nextSequence) && pull()) {
+                    Batch<O> batch = nextBatch();
+                    pending.put(batch.sequence(), batch.items());
+                }
+                return pending.containsKey(nextSequence);
+            }
+
+            @Override
+            public List<O> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                batchPermits.release();
+                return pending.remove(nextSequence++);
+            }
+        }
+    }
+}
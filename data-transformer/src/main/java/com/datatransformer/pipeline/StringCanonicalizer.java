@@ -0,0 +1,79 @@
+package com.datatransformer.pipeline;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache that returns one shared {@link String} instance per distinct value of a low-cardinality field,
+ * looked up from the parser's character buffer so that a hit allocates nothing. The cache is direct-mapped: each
+ * value hashes to one slot and a miss replaces whatever the slot held, so memory stays fixed however many
+ * distinct values show up, and a high-cardinality field only costs hit rate.
+ *
+ * <p>Thread-safe without locking: slots are written racily, which is safe because strings are immutable, and
+ * the worst outcome of a race is a miss.
+ */
+public final class StringCanonicalizer {
+
+    // Longer values are unlikely to repeat and are not worth comparing character by character
+    private static final int MAX_LENGTH = 64;
+
+    private final String[] slots;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public StringCanonicalizer(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        int capacity = Integer.highestOneBit(size - 1) << 1;
+        this.slots = new String[Math.max(1, capacity)];
+        this.mask = slots.length - 1;
+    }
+
+    public String canonicalize(char[] chars, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            misses.increment();
+            return new String(chars, offset, length);
+        }
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + chars[i];
+        }
+        int slot = (h ^ (h >>> 16)) & mask;
+        String cached = slots[slot];
+        if (cached != null && matches(cached, chars, offset, length)) {
+            hits.increment();
+            return cached;
+        }
+        String value = new String(chars, offset, length);
+        slots[slot] = value;
+        misses.increment();
+        return value;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private static boolean matches(String cached, char[] chars, int offset, int length) {
+        if (cached.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
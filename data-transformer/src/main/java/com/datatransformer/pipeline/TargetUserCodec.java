@@ -0,0 +1,71 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.TargetUser;
+
+import java.io.IOException;
+import java.util.Comparator;
+
+/**
+ * Binary record format for {@link TargetUser}, one field per property in declaration order, with {@code type} and
+ * {@code location} dictionary-coded.
+ */
+public final class TargetUserCodec implements RecordCodec<TargetUser> {
+
+    public static final int ID = 0;
+    public static final int EXTERNAL_ID = 1;
+    public static final int MAIL = 2;
+    public static final int TYPE = 3;
+    public static final int LOCATION = 4;
+    public static final int IS_ENABLED = 5;
+    public static final int FIRST_NAME = 6;
+    public static final int LAST_NAME = 7;
+    public static final int LAST_SIGN_IN = 8;
+    public static final int LAST_SUCCESSFUL_SIGN_IN = 9;
+    public static final int LAST_NON_INTERACTIVE_SIGN_IN = 10;
+
+    public static final Comparator<TargetUser> BY_ID =
+            Comparator.comparing(TargetUser::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    // The same order as BY_ID, on encoded users
+    public static final Comparator<BinaryRecord> RECORDS_BY_ID = (a, b) -> a.compareString(ID, b);
+
+    // Object header, fields and a String with its array per field, for sizing sort runs
+    private static final int RECORD_OVERHEAD = 64;
+    private static final int STRING_OVERHEAD = 56;
+
+    @Override
+    public void write(TargetUser user, BinaryRecordWriter out) throws IOException {
+        out.writeString(user.id());
+        out.writeString(user.externalId());
+        out.writeString(user.mail());
+        out.writeDictionaryString(user.type());
+        out.writeDictionaryString(user.location());
+        out.writeBoolean(user.isEnabled());
+        out.writeString(user.firstName());
+        out.writeString(user.lastName());
+        out.writeString(user.lastSignInDateTime());
+        out.writeString(user.lastSuccessfulSignInDateTime());
+        out.writeString(user.lastNonInteractiveSignInDateTime());
+        out.endRecord();
+    }
+
+    @Override
+    public TargetUser read(BinaryRecord record) {
+        return new TargetUser(record.string(ID), record.string(EXTERNAL_ID), record.string(MAIL),
+                record.string(TYPE), record.string(LOCATION), record.bool(IS_ENABLED), record.string(FIRST_NAME),
+                record.string(LAST_NAME), record.string(LAST_SIGN_IN), record.string(LAST_SUCCESSFUL_SIGN_IN),
+                record.string(LAST_NON_INTERACTIVE_SIGN_IN));
+    }
+
+    // Estimated heap bytes of a user, assuming Latin-1 strings
+    public static long estimatedSize(TargetUser user) {
+        return RECORD_OVERHEAD + size(user.id()) + size(user.externalId()) + size(user.mail()) + size(user.type())
+                + size(user.location()) + size(user.firstName()) + size(user.lastName())
+                + size(user.lastSignInDateTime()) + size(user.lastSuccessfulSignInDateTime())
+                + size(user.lastNonInteractiveSignInDateTime());
+    }
+
+    private static long size(String value) {
+        return value == null ? 0 : STRING_OVERHEAD + value.length();
+    }
+}
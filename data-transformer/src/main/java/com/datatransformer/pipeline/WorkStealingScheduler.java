@@ -0,0 +1,111 @@
+package com.datatransformer.pipeline;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs a known set of jobs on a fixed number of worker threads, largest jobs first. Jobs are sorted by size
+ * and dealt to per-worker deques, each job going to the worker with the fewest bytes assigned so far. A worker
+ * takes the largest job from the head of its own deque and, once that is empty, steals the smallest job from
+ * the tail of the worker with the most bytes left, so a poor size estimate does not leave cores idle.
+ */
+public final class WorkStealingScheduler {
+
+    public record Job<T>(T payload, long size) {
+    }
+
+    private WorkStealingScheduler() {
+    }
+
+    public static <T> void run(List<Job<T>> jobs, int workers, String threadPrefix, Consumer<T> action)
+            throws InterruptedException {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive: " + workers);
+        }
+        List<Worker<T>> deques = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            deques.add(new Worker<>());
+        }
+        List<Job<T>> sorted = new ArrayList<>(jobs);
+        sorted.sort(Comparator.comparingLong((Job<T> job) -> job.size()).reversed());
+        for (Job<T> job : sorted) {
+            Worker<T> target = deques.get(0);
+            for (Worker<T> worker : deques) {
+                if (worker.assigned < target.assigned) {
+                    target = worker;
+                }
+            }
+            target.assigned += job.size();
+            target.remaining.addAndGet(job.size());
+            target.deque.addLast(job);
+        }
+
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            Worker<T> self = deques.get(i);
+            Thread thread = new Thread(() -> {
+                Job<T> job;
+                while ((job = self.takeOwn()) != null || (job = steal(deques)) != null) {
+                    try {
+                        action.accept(job.payload());
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }, threadPrefix + (i + 1));
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            threads.forEach(Thread::interrupt);
+            throw e;
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private static <T> Job<T> steal(List<Worker<T>> workers) {
+        while (true) {
+            Worker<T> victim = null;
+            for (Worker<T> worker : workers) {
+                if (!worker.deque.isEmpty() && (victim == null || worker.remaining.get() > victim.remaining.get())) {
+                    victim = worker;
+                }
+            }
+            if (victim == null) {
+                return null;
+            }
+            Job<T> job = victim.deque.pollLast();
+            if (job != null) {
+                victim.remaining.addAndGet(-job.size());
+                return job;
+            }
+            // Lost the race for the victim's last job; look again
+        }
+    }
+
+    private static final class Worker<T> {
+        private final ConcurrentLinkedDeque<Job<T>> deque = new ConcurrentLinkedDeque<>();
+        private final AtomicLong remaining = new AtomicLong();
+        private long assigned;
+
+        Job<T> takeOwn() {
+            Job<T> job = deque.pollFirst();
+            if (job != null) {
+                remaining.addAndGet(-job.size());
+            }
+            return job;
+        }
+    }
+}
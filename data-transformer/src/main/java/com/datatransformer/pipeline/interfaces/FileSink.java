@@ -0,0 +1,21 @@
+package com.datatransformer.pipeline.interfaces;
+
+import com.datatransformer.pipeline.Compression;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public interface FileSink<T> extends Sink<T, Path> {
+    // Extension for output files, given the compression the orchestrator chose for this output
+    String fileExtension(Compression compression);
+
+    // Whether append can add records to an output written earlier, e.g. to resume after a checkpoint
+    default boolean supportsAppend() {
+        return false;
+    }
+
+    default void append(Stream<T> data, Path output) throws IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot append to " + output);
+    }
+}
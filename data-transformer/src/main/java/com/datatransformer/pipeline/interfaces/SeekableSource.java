@@ -0,0 +1,23 @@
+package com.datatransformer.pipeline.interfaces;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A file source that can resume part-way through its input. Offsets are positions in the (decompressed) input
+ * reported by {@link Cursor#offset()}; opening the input again at such an offset continues with the record that
+ * followed it.
+ */
+public interface SeekableSource<T> extends Source<T, Path> {
+
+    Cursor<T> open(Path input, long offset) throws IOException;
+
+    interface Cursor<T> extends Closeable {
+        // The next record, or null once the input is exhausted
+        T next() throws IOException;
+
+        // Offset just past the last record returned by next(), or the starting offset before the first one
+        long offset();
+    }
+}
@@ -0,0 +1,15 @@
+package com.datatransformer.service;
+
+/**
+ * How {@link PipelineOrchestrator} fans out work across input files.
+ */
+public enum ExecutorType {
+    // Fixed pool with a bounded queue; when the queue is full the listing thread processes the file itself
+    POOL,
+    // One (virtual, where available) thread per file for the file lifecycle, parse/transform/write on a
+    // core-sized pool, and a semaphore capping the files in flight
+    VIRTUAL,
+    // One-shot runs stat all files and hand them out largest first through per-worker deques with work
+    // stealing; watch mode sees files one at a time and uses POOL instead
+    WORK_STEALING
+}
@@ -0,0 +1,146 @@
+package com.datatransformer.service;
+
+import com.datatransformer.pipeline.StageMetrics;
+import com.datatransformer.pipeline.StageMetrics.BatchQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Micrometer meters for {@link PipelineOrchestrator}, all registered up front so that recording is a field
+ * access and an add: no tags are built and no meters are looked up while records flow.
+ *
+ * <ul>
+ *   <li>{@code pipeline.stage.duration{stage}}: time per batch in read (parse), transform and write, and per
+ *       file in move (publishing the output and moving the input), as histograms</li>
+ *   <li>{@code pipeline.stage.records{stage}}: records that went through read, transform and write</li>
+ *   <li>{@code pipeline.file.duration{outcome}}: time per file including retries, with p50/p95/p99</li>
+ *   <li>{@code pipeline.bytes.read}, {@code pipeline.bytes.written}: input and output file sizes</li>
+ *   <li>{@code pipeline.files.queued}, {@code pipeline.files.active}: files waiting for and holding a worker</li>
+ *   <li>{@code pipeline.batches.queued{queue}}: batches in the staged pipeline's read and transformed queues and
+ *       in flight in the parallel transform, summed over the files in progress</li>
+ * </ul>
+ */
+class PipelineMetrics implements StageMetrics {
+
+    private final Timer readTimer;
+    private final Timer transformTimer;
+    private final Timer writeTimer;
+    private final Timer moveTimer;
+    private final Counter readRecords;
+    private final Counter transformRecords;
+    private final Counter writeRecords;
+    private final Timer fileSuccessTimer;
+    private final Timer fileFailureTimer;
+    private final Counter bytesRead;
+    private final Counter bytesWritten;
+    private final AtomicInteger queuedFiles = new AtomicInteger();
+    private final AtomicInteger activeFiles = new AtomicInteger();
+    private final Map<BatchQueue, Set<IntSupplier>> openQueues = new EnumMap<>(BatchQueue.class);
+
+    PipelineMetrics(MeterRegistry registry) {
+        readTimer = stageTimer(registry, "read");
+        transformTimer = stageTimer(registry, "transform");
+        writeTimer = stageTimer(registry, "write");
+        moveTimer = stageTimer(registry, "move");
+        readRecords = stageRecords(registry, "read");
+        transformRecords = stageRecords(registry, "transform");
+        writeRecords = stageRecords(registry, "write");
+        fileSuccessTimer = fileTimer(registry, "success");
+        fileFailureTimer = fileTimer(registry, "failure");
+        bytesRead = Counter.builder("pipeline.bytes.read").baseUnit("bytes").register(registry);
+        bytesWritten = Counter.builder("pipeline.bytes.written").baseUnit("bytes").register(registry);
+        Gauge.builder("pipeline.files.queued", queuedFiles, AtomicInteger::get).register(registry);
+        Gauge.builder("pipeline.files.active", activeFiles, AtomicInteger::get).register(registry);
+        for (BatchQueue queue : BatchQueue.values()) {
+            Set<IntSupplier> depths = ConcurrentHashMap.newKeySet();
+            openQueues.put(queue, depths);
+            Gauge.builder("pipeline.batches.queued", depths, PipelineMetrics::sum)
+                    .tag("queue", queue.name().toLowerCase()).register(registry);
+        }
+    }
+
+    private static double sum(Set<IntSupplier> depths) {
+        int sum = 0;
+        for (IntSupplier depth : depths) {
+            sum += depth.getAsInt();
+        }
+        return sum;
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("pipeline.stage.duration").tag("stage", stage).publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter stageRecords(MeterRegistry registry, String stage) {
+        return Counter.builder("pipeline.stage.records").tag("stage", stage).register(registry);
+    }
+
+    private static Timer fileTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("pipeline.file.duration").tag("outcome", outcome).publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram().register(registry);
+    }
+
+    @Override
+    public void read(long nanos, int records) {
+        readTimer.record(nanos, TimeUnit.NANOSECONDS);
+        readRecords.increment(records);
+    }
+
+    @Override
+    public void transformed(long nanos, int records) {
+        transformTimer.record(nanos, TimeUnit.NANOSECONDS);
+        transformRecords.increment(records);
+    }
+
+    @Override
+    public void written(long nanos, int records) {
+        writeTimer.record(nanos, TimeUnit.NANOSECONDS);
+        writeRecords.increment(records);
+    }
+
+    @Override
+    public void queueOpened(BatchQueue queue, IntSupplier depth) {
+        openQueues.get(queue).add(depth);
+    }
+
+    @Override
+    public void queueClosed(BatchQueue queue, IntSupplier depth) {
+        openQueues.get(queue).remove(depth);
+    }
+
+    void moved(long nanos) {
+        moveTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void fileQueued() {
+        queuedFiles.incrementAndGet();
+    }
+
+    void fileStarted() {
+        queuedFiles.decrementAndGet();
+        activeFiles.incrementAndGet();
+    }
+
+    void fileFinished() {
+        activeFiles.decrementAndGet();
+    }
+
+    void fileProcessed(long nanos, boolean succeeded, long inputBytes, long outputBytes) {
+        (succeeded ? fileSuccessTimer : fileFailureTimer).record(nanos, TimeUnit.NANOSECONDS);
+        if (succeeded) {
+            bytesRead.increment(inputBytes);
+            bytesWritten.increment(outputBytes);
+        }
+    }
+}
@@ -1,5 +1,23 @@
 package com.datatransformer.service;
 
+import com.datatransformer.component.UserJsonTranscoder;
+import com.datatransformer.pipeline.Batches;
+import com.datatransformer.pipeline.Checkpoint;
+import com.datatransformer.pipeline.CheckpointedTransfer;
+import com.datatransformer.pipeline.Compression;
+import com.datatransformer.pipeline.DedupPolicy;
+import com.datatransformer.pipeline.Deduplicator;
+import com.datatransformer.pipeline.DeltaRun;
+import com.datatransformer.pipeline.DirectoryWatcher;
+import com.datatransformer.pipeline.IdIndex;
+import com.datatransformer.pipeline.OutputDirectory;
+import com.datatransformer.pipeline.ParallelTransform;
+import com.datatransformer.pipeline.SortedRun;
+import com.datatransformer.pipeline.StageMetrics;
+import com.datatransformer.pipeline.StagedPipeline;
+import com.datatransformer.pipeline.WorkStealingScheduler;
+import com.datatransformer.pipeline.interfaces.FileSink;
+import com.datatransformer.pipeline.interfaces.SeekableSource;
 import com.datatransformer.pipeline.interfaces.Sink;
 import com.datatransformer.pipeline.interfaces.Source;
 import com.datatransformer.pipeline.interfaces.Transformer;
@@ -7,37 +25,59 @@ import com.datatransformer.model.RawUser;
 import com.datatransformer.model.TargetUser;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
+/**
+ * Runs the pipeline over the files of an input directory, once or while watching it. The features of a run each
+ * have a collaborator with its own lifecycle, opened here per run and handed the files or users they work on:
+ * {@link OutputDirectory} publishes and journals outputs, {@link DeltaRun}, {@link Deduplicator} and
+ * {@link SortedRun} filter and merge users, {@link CheckpointedTransfer} resumes files and {@link WorkerPools}
+ * provides the threads.
+ */
 @Service
 public class PipelineOrchestrator {
 
     private static final Logger logger = LoggerFactory.getLogger(PipelineOrchestrator.class);
+    private static final String DEFAULT_JOURNAL_NAME = ".pipeline-journal";
+    private static final String DEFAULT_DELTA_STORE_NAME = ".delta-state";
 
     private final Source<RawUser, Path> source;
     private final Transformer<RawUser, TargetUser> transformer;
     private final Sink<TargetUser, Path> sink;
+    private final UserJsonTranscoder transcoder;
     private final Counter successCounter;
+    private final PipelineMetrics metrics;
     private final Counter failureCounter;
+    private final Counter duplicateCounter;
 
     @Value("${pipeline.thread-pool.size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
     private int threadPoolSize;
@@ -48,108 +88,545 @@ public class PipelineOrchestrator {
     @Value("${pipeline.batch.size:50000}")
     private int batchSize;
 
+    @Value("${pipeline.mode:sequential}")
+    private ProcessingMode mode = ProcessingMode.SEQUENTIAL;
+
+    // Worker threads shared by all files in PARALLEL mode (0 = number of CPU cores)
+    @Value("${pipeline.parallel.workers:0}")
+    private int parallelWorkers;
+
+    // Batches queued or running per file in PARALLEL mode (0 = twice the number of workers)
+    @Value("${pipeline.parallel.max-in-flight:0}")
+    private int maxInFlightBatches;
+
+    // Transformer threads per file in STAGED mode (0 = number of CPU cores)
+    @Value("${pipeline.staged.transformers:0}")
+    private int stagedTransformers;
+
+    // Batches each queue between STAGED mode stages can hold before the stage feeding it blocks
+    @Value("${pipeline.staged.queue-capacity:4}")
+    private int stagedQueueCapacity = 4;
+
+    // Whether PARALLEL and STAGED modes preserve input record order in the output
+    @Value("${pipeline.parallel.ordered:true}")
+    private boolean ordered = true;
+
+    // same: mirror the input file's compression; otherwise none, gzip or zstd
+    @Value("${pipeline.output.compression:same}")
+    private String outputCompression = "same";
+
+    // How long a file's size and modification time must stay unchanged before watch mode picks it up
+    @Value("${pipeline.watch.settle-time:2s}")
+    private Duration watchSettleTime = Duration.ofSeconds(2);
+
+    // When set, watch mode waits for a <file><suffix> marker instead of a stable size
+    @Value("${pipeline.watch.marker-suffix:}")
+    private String watchMarkerSuffix = "";
+
+    @Value("${pipeline.watch.poll-interval:500ms}")
+    private Duration watchPollInterval = Duration.ofMillis(500);
+
+    // Rescan the directory instead of using file system notifications (e.g. for network mounts)
+    @Value("${pipeline.watch.polling:false}")
+    private boolean watchPolling;
+
+    @Value("${pipeline.watch.drain-timeout:5m}")
+    private Duration watchDrainTimeout = Duration.ofMinutes(5);
+
+    @Value("${pipeline.retry.max-attempts:3}")
+    private int retryMaxAttempts = 3;
+
+    @Value("${pipeline.retry.initial-delay:1s}")
+    private Duration retryInitialDelay = Duration.ofSeconds(1);
+
+    @Value("${pipeline.retry.multiplier:2}")
+    private double retryMultiplier = 2;
+
+    @Value("${pipeline.retry.max-delay:30s}")
+    private Duration retryMaxDelay = Duration.ofSeconds(30);
+
+    // Records per checkpointed chunk in SEQUENTIAL mode, when the source can seek and the sink can append (0 = off)
+    @Value("${pipeline.retry.checkpoint-records:50000}")
+    private long checkpointRecords = 50_000;
+
+    // Record committed inputs so restarts skip them; outputs are forced to disk before they are committed
+    @Value("${pipeline.journal.enabled:true}")
+    private boolean journalEnabled = true;
+
+    // Journal file (default: .pipeline-journal in the output directory)
+    @Value("${pipeline.journal.path:}")
+    private String journalPath = "";
+
+    // Emit only users that are new or changed since the last run, see DeltaStore
+    @Value("${pipeline.delta.enabled:false}")
+    private boolean deltaEnabled;
+
+    // Delta state directory (default: .delta-state in the output directory)
+    @Value("${pipeline.delta.store-dir:}")
+    private String deltaStoreDir = "";
+
+    // Write the ids of users missing from a run to deleted-users-<run>.json
+    @Value("${pipeline.delta.emit-deletes:false}")
+    private boolean deltaEmitDeletes;
+
+    // none (default), first_wins or last_wins, see DedupPolicy
+    @Value("${pipeline.dedup.policy:none}")
+    private DedupPolicy dedupPolicy = DedupPolicy.NONE;
+
+    // Merge the outputs of a one-shot run into a single file sorted by Id, see ExternalSorter
+    @Value("${pipeline.sort.enabled:false}")
+    private boolean sortEnabled;
+
+    // Name of the sorted output, before the sink's extension
+    @Value("${pipeline.sort.output-name:users-sorted}")
+    private String sortOutputName = "users-sorted";
+
+    // Directory for spilled runs (default: the system temp directory)
+    @Value("${pipeline.sort.spill-dir:}")
+    private String sortSpillDir = "";
+
+    // Estimated heap bytes of records each file holds while its runs are sorted and spilled
+    @Value("${pipeline.sort.memory-budget:16777216}")
+    private long sortMemoryBudget = 16L * 1024 * 1024;
+
+    // Threads sorting and spilling runs for all files (0 = number of CPU cores)
+    @Value("${pipeline.sort.spill-threads:0}")
+    private int sortSpillThreads;
+
+    // pool (default) or virtual, see ExecutorType
+    @Value("${pipeline.executor.type:pool}")
+    private ExecutorType executorType = ExecutorType.POOL;
+
+    // Files admitted at once with the virtual executor; listing blocks once this many are in flight
+    @Value("${pipeline.executor.max-in-flight-files:1000}")
+    private int maxInFlightFiles = 1000;
+
+    private final LongAdder busyNanos = new LongAdder();
+    private final AtomicLong lastMakespanNanos = new AtomicLong();
+    private final AtomicLong lastIdleCoreNanos = new AtomicLong();
+
+    private volatile OutputDirectory output;
+    private volatile DeltaRun deltaRun;
+    private volatile Deduplicator deduplicator;
+    private volatile SortedRun sortedRun;
+    private volatile WorkerPools pools;
+    private final AtomicInteger nextFileId = new AtomicInteger();
+    private final AtomicInteger runFailures = new AtomicInteger();
+    private final AtomicLong firstRecordMillis = new AtomicLong(-1);
+    private volatile boolean stopRequested;
+    private volatile CountDownLatch watchStopped;
+
     public PipelineOrchestrator(Source<RawUser, Path> source,
             Transformer<RawUser, TargetUser> transformer,
             Sink<TargetUser, Path> sink,
+            UserJsonTranscoder transcoder,
             MeterRegistry meterRegistry) {
         this.source = source;
         this.transformer = transformer;
         this.sink = sink;
+        this.transcoder = transcoder;
         this.successCounter = meterRegistry.counter("files.processed.success");
         this.failureCounter = meterRegistry.counter("files.processed.failure");
+        this.duplicateCounter = meterRegistry.counter("users.duplicates.dropped");
+        this.metrics = new PipelineMetrics(meterRegistry);
+        meterRegistry.gauge("pipeline.run.makespan.seconds", lastMakespanNanos, nanos -> nanos.get() / 1e9);
+        meterRegistry.gauge("pipeline.run.idle.core.seconds", lastIdleCoreNanos, nanos -> nanos.get() / 1e9);
+        meterRegistry.gauge("pipeline.startup.first.record.seconds", firstRecordMillis, millis -> millis.get() / 1e3);
     }
 
     public void run(Path inputDir, Path outputDir) {
         logger.info("Starting pipeline. Input: {}, Output: {}", inputDir, outputDir);
 
-        // Create processed and failed directories
         Path processedDir = inputDir.resolve("processed");
         Path failedDir = inputDir.resolve("failed");
+        createLifecycleDirectories(processedDir, failedDir);
+        output = openOutputDirectory(outputDir);
+
+        busyNanos.reset();
+        runFailures.set(0);
+        long start = System.nanoTime();
+        WorkerPools workerPools = WorkerPools.open(mode, workerCount());
+        pools = workerPools;
         try {
-            Files.createDirectories(processedDir);
-            Files.createDirectories(failedDir);
+            deltaRun = openDeltaRun(outputDir);
+            sortedRun = openSortedRun();
+            deduplicator = openDeduplicator(inputDir, failedDir);
+            boolean completed;
+            if (executorType == ExecutorType.WORK_STEALING) {
+                // The work-stealing scheduler runs its own workers and returns once every file is done
+                runLargestFirst(inputDir, processedDir, failedDir);
+                completed = true;
+            } else {
+                workerPools.startFileExecutor(executorType, threadPoolSize, queueCapacity, maxInFlightFiles);
+                try (Stream<Path> files = Files.list(inputDir)) {
+                    files.filter(Files::isRegularFile)
+                            .filter(PipelineOrchestrator::isInputFile)
+                            .forEach(file -> submit(workerPools, file, processedDir, failedDir));
+                }
+                completed = workerPools.drain(Duration.ofHours(1));
+            }
+            if (sortedRun != null && completed) {
+                sortedRun.finish(sink, output, outputFileName(sortOutputName + ".json"), processedDir);
+            }
+            if (deltaRun != null && completed) {
+                deltaRun.finish(runFailures.get(), deltaEmitDeletes, output, outputCompression(Compression.NONE));
+            }
         } catch (IOException e) {
-            throw new UncheckedIOException("Failed to create lifecycle directories", e);
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workerPools.close();
+            pools = null;
+            deduplicator = null;
+            closeQuietly(output, "Failed to close commit journal");
+            output = null;
+            closeQuietly(deltaRun, "Failed to close delta store");
+            deltaRun = null;
+            closeQuietly(sortedRun, "Failed to delete sort runs");
+            sortedRun = null;
         }
+        recordRunTimes(System.nanoTime() - start);
+        logger.info("Pipeline completed.");
+    }
 
-        ThreadPoolExecutor executor = new ThreadPoolExecutor(
-                threadPoolSize,
-                threadPoolSize,
-                0L,
-                TimeUnit.MILLISECONDS,
-                new ArrayBlockingQueue<>(queueCapacity),
-                new ThreadPoolExecutor.CallerRunsPolicy());
+    // Stats every input first so the biggest files start first instead of dominating the end of the run
+    private void runLargestFirst(Path inputDir, Path processedDir, Path failedDir)
+            throws IOException, InterruptedException {
+        List<WorkStealingScheduler.Job<Path>> jobs = listInputJobs(inputDir);
+        jobs.forEach(job -> metrics.fileQueued());
+        WorkStealingScheduler.run(jobs, threadPoolSize, "pipeline-file-",
+                file -> processSafely(file, processedDir, failedDir));
+    }
 
-        try {
-            try (Stream<Path> files = Files.list(inputDir)) {
-                files.filter(Files::isRegularFile)
-                        .filter(path -> path.toString().endsWith(".json"))
-                        .forEach(file -> {
-                            executor.submit(() -> {
-                                try {
-                                    processFileWithRetry(file, outputDir, processedDir, failedDir);
-                                } catch (Exception e) {
-                                    logger.error("Unexpected error in executor task for file: {}", file, e);
-                                }
-                            });
-                        });
-            }
-
-            executor.shutdown();
-            try {
-                if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
-                    executor.shutdownNow();
+    private static List<WorkStealingScheduler.Job<Path>> listInputJobs(Path inputDir) throws IOException {
+        List<WorkStealingScheduler.Job<Path>> jobs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(inputDir)) {
+            for (Path file : (Iterable<Path>) files.filter(PipelineOrchestrator::isInputFile)::iterator) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    jobs.add(new WorkStealingScheduler.Job<>(file, attributes.size()));
                 }
-            } catch (InterruptedException e) {
-                executor.shutdownNow();
-                Thread.currentThread().interrupt();
             }
+        }
+        return jobs;
+    }
+
+    // Idle core time is the part of threads x wall-clock time that no file was being processed
+    private void recordRunTimes(long makespan) {
+        long idle = Math.max(0, threadPoolSize * makespan - busyNanos.sum());
+        lastMakespanNanos.set(makespan);
+        lastIdleCoreNanos.set(idle);
+        logger.info("Run took {} ms on {} threads, idle core time {} ms ({}%)",
+                TimeUnit.NANOSECONDS.toMillis(makespan), threadPoolSize, TimeUnit.NANOSECONDS.toMillis(idle),
+                makespan == 0 ? 0 : 100 * idle / (threadPoolSize * makespan));
+    }
+
+    /**
+     * Keeps processing files as they are fully written to the input directory until {@link #stop()} is called,
+     * reusing the same worker pools (and warmed-up code) for every file. Files already queued or in progress
+     * when stopping are finished before this method returns.
+     */
+    public void watch(Path inputDir, Path outputDir) {
+        logger.info("Watching for input files. Input: {}, Output: {}", inputDir, outputDir);
+
+        Path processedDir = inputDir.resolve("processed");
+        Path failedDir = inputDir.resolve("failed");
+        if (deltaEnabled) {
+            // A delta is relative to the previous full export, and a watch never reaches the end of one
+            throw new IllegalStateException("Delta mode needs a complete export per run and cannot be used with watch");
+        }
+        if (sortEnabled) {
+            throw new IllegalStateException("Sorted output merges a complete run and cannot be used with watch");
+        }
+        if (dedupPolicy != DedupPolicy.NONE) {
+            throw new IllegalStateException(
+                    "Deduplication keeps every id seen in memory and cannot be used with watch, where it would grow without bound");
+        }
+        createLifecycleDirectories(processedDir, failedDir);
+        output = openOutputDirectory(outputDir);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        watchStopped = stopped;
+        WorkerPools workerPools = WorkerPools.open(mode, workerCount());
+        pools = workerPools;
+        // Files arrive one at a time, so there is nothing for the work-stealing scheduler to order
+        workerPools.startFileExecutor(executorType == ExecutorType.WORK_STEALING ? ExecutorType.POOL : executorType,
+                threadPoolSize, queueCapacity, maxInFlightFiles);
+        try (DirectoryWatcher watcher = new DirectoryWatcher(inputDir, PipelineOrchestrator::isInputFile,
+                watchSettleTime, watchMarkerSuffix, watchPolling)) {
+            if (watcher.isPolling()) {
+                logger.info("Polling {} every {}", inputDir, watchPollInterval);
+            }
+            while (!stopRequested) {
+                for (Path file : watcher.poll(watchPollInterval)) {
+                    submit(workerPools, file, processedDir, failedDir);
+                }
+            }
+            logger.info("Stop requested, draining in-flight files");
+            workerPools.drain(watchDrainTimeout);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
-            if (!executor.isTerminated()) {
-                executor.shutdownNow();
+            workerPools.close();
+            pools = null;
+            closeQuietly(output, "Failed to close commit journal");
+            output = null;
+            stopRequested = false;
+            watchStopped = null;
+            stopped.countDown();
+            logger.info("Stopped watching {}", inputDir);
+        }
+    }
+
+    // Ends a running watch and waits for its in-flight files to drain; called on application shutdown
+    @PreDestroy
+    public void stop() {
+        CountDownLatch stopped = watchStopped;
+        if (stopped == null) {
+            return;
+        }
+        stopRequested = true;
+        try {
+            if (!stopped.await(watchDrainTimeout.plus(watchPollInterval).toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Watch did not drain within {}", watchDrainTimeout);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(WorkerPools workerPools, Path file, Path processedDir, Path failedDir) {
+        metrics.fileQueued();
+        workerPools.submit(() -> processSafely(file, processedDir, failedDir));
+    }
+
+    private void processSafely(Path file, Path processedDir, Path failedDir) {
+        long start = System.nanoTime();
+        metrics.fileStarted();
+        try {
+            processFileWithRetry(file, processedDir, failedDir);
+        } catch (Exception e) {
+            runFailures.incrementAndGet();
+            logger.error("Unexpected error in executor task for file: {}", file, e);
+        } finally {
+            metrics.fileFinished();
+            busyNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private OutputDirectory openOutputDirectory(Path outputDir) {
+        Path journalFile = !journalEnabled ? null
+                : journalPath.isEmpty() ? outputDir.resolve(DEFAULT_JOURNAL_NAME) : Path.of(journalPath);
+        try {
+            return OutputDirectory.open(outputDir, journalFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare output directory " + outputDir, e);
+        }
+    }
+
+    private DeltaRun openDeltaRun(Path outputDir) {
+        if (!deltaEnabled) {
+            return null;
+        }
+        if (mode == ProcessingMode.FAST_PATH) {
+            throw new IllegalStateException("Delta mode compares transformed users and cannot be used with FAST_PATH");
+        }
+        Path directory = deltaStoreDir.isEmpty() ? outputDir.resolve(DEFAULT_DELTA_STORE_NAME) : Path.of(deltaStoreDir);
+        try {
+            return DeltaRun.open(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open delta store " + directory, e);
+        }
+    }
+
+    private SortedRun openSortedRun() {
+        if (!sortEnabled) {
+            return null;
+        }
+        if (mode == ProcessingMode.FAST_PATH) {
+            throw new IllegalStateException("Sorted output needs transformed users and cannot be used with FAST_PATH");
+        }
+        Path parent = sortSpillDir.isEmpty() ? Path.of(System.getProperty("java.io.tmpdir")) : Path.of(sortSpillDir);
+        try {
+            return SortedRun.open(parent, sortMemoryBudget,
+                    sortSpillThreads > 0 ? sortSpillThreads : Runtime.getRuntime().availableProcessors());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create sort directory in " + parent, e);
+        }
+    }
+
+    // A file whose LAST_WINS scan fails is moved to the failed directory before the second pass lists the inputs
+    private Deduplicator openDeduplicator(Path inputDir, Path failedDir) throws IOException, InterruptedException {
+        if (dedupPolicy == DedupPolicy.NONE) {
+            return null;
+        }
+        if (mode == ProcessingMode.FAST_PATH) {
+            throw new IllegalStateException("Deduplication needs transformed users and cannot be used with FAST_PATH");
+        }
+        Deduplicator dedup = new Deduplicator(dedupPolicy, Math.max(threadPoolSize, workerCount()),
+                duplicateCounter::increment);
+        dedup.scan(listInputJobs(inputDir), threadPoolSize, source, transformer, nextFileId::incrementAndGet,
+                (file, e) -> recoverFromProcessingFailure(e, file, failedDir));
+        return dedup;
+    }
+
+    private static void closeQuietly(Closeable resource, String failure) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (IOException e) {
+            logger.warn(failure, e);
+        }
+    }
+
+    // Drops duplicate users when deduplicating, then users whose fingerprint matches the last committed run when
+    // delta mode is on. The owner identifies the file attempt the users come from, see IdIndex.
+    private Stream<TargetUser> emitted(Stream<TargetUser> users, long owner) {
+        if (firstRecordMillis.get() < 0) {
+            users = users.peek(user -> firstRecord());
+        }
+        Deduplicator dedup = deduplicator;
+        if (dedup != null) {
+            users = dedup.kept(users, owner);
+        }
+        DeltaRun delta = deltaRun;
+        return delta == null ? users : delta.changed(users);
+    }
+
+    // Time from JVM start to the first transformed user, logged once to track startup regressions
+    private void firstRecord() {
+        if (firstRecordMillis.get() >= 0) {
+            return;
+        }
+        long millis = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (firstRecordMillis.compareAndSet(-1, millis)) {
+            logger.info("First record {} ms after JVM start", millis);
+        }
+    }
+
+    // A file that vanished is left to the attempt to fail on
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void createLifecycleDirectories(Path processedDir, Path failedDir) {
+        try {
+            Files.createDirectories(processedDir);
+            Files.createDirectories(failedDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create lifecycle directories", e);
         }
-        logger.info("Pipeline completed.");
     }
 
-    @Retryable(retryFor = { Exception.class }, maxAttempts = 3, backoff = @Backoff(delay = 1000, multiplier = 2))
-    public void processFileWithRetry(Path inputFile, Path outputDir, Path processedDir, Path failedDir)
-            throws Exception {
+    /**
+     * Processes one file of the current run or watch, retrying failures with exponential backoff. Attempts share
+     * a checkpoint, so when the file is written in checkpointed chunks a retry continues after the last complete
+     * chunk. Once all attempts fail, the file is moved to the failed directory.
+     */
+    private void processFileWithRetry(Path inputFile, Path processedDir, Path failedDir) throws Exception {
         String filename = inputFile.getFileName().toString();
         MDC.put("filename", filename);
+        try {
+            AtomicReference<Checkpoint> checkpoint = new AtomicReference<>(Checkpoint.START);
+            int fileId = nextFileId.incrementAndGet();
+            long inputSize = sizeOf(inputFile);
+            long start = System.nanoTime();
+            Long outputSize = retryTemplate().execute(context -> {
+                if (context.getRetryCount() > 0) {
+                    logger.info("Retrying file: {} (attempt {}), {} records already written", inputFile,
+                            context.getRetryCount() + 1, checkpoint.get().recordsWritten());
+                }
+                return processAttempt(inputFile, processedDir, checkpoint,
+                        IdIndex.owner(fileId, context.getRetryCount()));
+            }, context -> {
+                Deduplicator dedup = deduplicator;
+                if (dedup != null) {
+                    dedup.release(fileId);
+                }
+                recoverFromProcessingFailure(context.getLastThrowable(), inputFile, failedDir);
+                return null;
+            });
+            metrics.fileProcessed(System.nanoTime() - start, outputSize != null, inputSize,
+                    outputSize != null ? outputSize : 0);
+        } finally {
+            MDC.remove("filename");
+        }
+    }
+
+    // Returns the size of the output written
+    private long processAttempt(Path inputFile, Path processedDir, AtomicReference<Checkpoint> checkpoint,
+            long owner) throws Exception {
         try {
             logger.info("Processing file: {}", inputFile);
-            processFile(inputFile, outputDir);
+            String inputName = inputFile.getFileName().toString();
+            BasicFileAttributes attributes = Files.readAttributes(inputFile, BasicFileAttributes.class);
+            long inputSize = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            OutputDirectory outputDirectory = output;
+            if (outputDirectory.isCommitted(inputName, inputSize, lastModified)) {
+                // Committed before a crash or restart that left the input behind
+                Files.move(inputFile, processedDir.resolve(inputName), StandardCopyOption.REPLACE_EXISTING);
+                logger.info("Skipped file already committed to the journal: {}", inputFile);
+                return 0;
+            }
+
+            ExecutorService cpu = pools.cpuPool();
+            if (cpu == null) {
+                processFile(inputFile, checkpoint, owner);
+            } else {
+                // The file's own thread only waits here; parsing, transforming and writing run on the CPU pool
+                await(cpu.submit(() -> processFile(inputFile, checkpoint, owner)), inputFile);
+            }
+
+            SortedRun sorting = sortedRun;
+            if (sorting != null) {
+                // Committed and moved once the merged output is published at the end of the run
+                sorting.add(inputFile, inputSize, lastModified);
+                successCounter.increment();
+                logger.info("Sorted file into runs: {}", inputFile);
+                return 0;
+            }
+
+            long moveStart = System.nanoTime();
+            String outputName = outputFileName(inputName);
+            long outputSize = outputDirectory.publish(outputName);
+            outputDirectory.commit(inputName, inputSize, lastModified, outputName);
 
             // Move to processed directory
-            Path targetPath = processedDir.resolve(filename);
+            Path targetPath = processedDir.resolve(inputFile.getFileName().toString());
             Files.move(inputFile, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            metrics.moved(System.nanoTime() - moveStart);
 
             successCounter.increment();
             logger.info("Successfully processed and moved file: {}", inputFile);
+            return outputSize;
         } catch (Exception e) {
             logger.error("Error processing file: {}", inputFile, e);
             throw e; // Re-throw to trigger retry
-        } finally {
-            MDC.remove("filename");
         }
     }
 
-    @Recover
-    public void recoverFromProcessingFailure(Exception e, Path inputFile, Path outputDir, Path processedDir,
-            Path failedDir) {
+    public void recoverFromProcessingFailure(Throwable e, Path inputFile, Path failedDir) {
         String filename = inputFile.getFileName().toString();
         MDC.put("filename", filename);
         try {
-            logger.error("Failed to process file after retries: {}", inputFile, e);
+            logger.error("Failed to process file: {}", inputFile, e);
 
             // Move to failed directory
             Path targetPath = failedDir.resolve(filename);
             Files.move(inputFile, targetPath, StandardCopyOption.REPLACE_EXISTING);
 
             failureCounter.increment();
+            runFailures.incrementAndGet();
             logger.info("Moved failed file to: {}", targetPath);
         } catch (IOException ioException) {
             logger.error("Failed to move file to failed directory: {}", inputFile, ioException);
@@ -158,37 +635,143 @@ public class PipelineOrchestrator {
         }
     }
 
-    private void processFile(Path inputFile, Path outputDir) {
-        String filename = inputFile.getFileName().toString();
-        Path outputFile = outputDir.resolve(filename);
+    // Built per file, so tests and configuration changes to the retry fields take effect immediately
+    private RetryTemplate retryTemplate() {
+        return RetryTemplate.builder()
+                .maxAttempts(retryMaxAttempts)
+                .exponentialBackoff(retryInitialDelay.toMillis(), retryMultiplier, retryMaxDelay.toMillis())
+                .retryOn(Exception.class)
+                .build();
+    }
 
-        try (Stream<RawUser> rawUsers = source.read(inputFile)) {
-            // Process in batches
-            List<RawUser> batch = new ArrayList<>(batchSize);
-            List<TargetUser> transformedBatch = new ArrayList<>(batchSize);
-
-            rawUsers.forEach(rawUser -> {
-                batch.add(rawUser);
-                if (batch.size() >= batchSize) {
-                    // Transform batch
-                    for (RawUser user : batch) {
-                        transformedBatch.add(transformer.transform(user));
-                    }
-                    batch.clear();
-                }
-            });
+    // Writes to the output's in-progress file; processAttempt publishes it once it is complete
+    // When sorting, the file is spilled to a run directory of its own instead
+    private void processFile(Path inputFile, AtomicReference<Checkpoint> checkpoint, long owner) {
+        String inputName = inputFile.getFileName().toString();
+        SortedRun sorting = sortedRun;
+        if (sorting != null) {
+            writeOutput(inputFile, sorting.runDirectory(inputName), sorting, checkpoint, owner);
+            return;
+        }
+        writeOutput(inputFile, output.inProgress(outputFileName(inputName)), sink, checkpoint, owner);
+    }
 
-            // Process remaining records
-            if (!batch.isEmpty()) {
-                for (RawUser user : batch) {
-                    transformedBatch.add(transformer.transform(user));
-                }
+    private void writeOutput(Path inputFile, Path outputFile, Sink<TargetUser, Path> destination,
+            AtomicReference<Checkpoint> checkpoint, long owner) {
+
+        if (mode == ProcessingMode.FAST_PATH) {
+            try {
+                transcoder.transcode(inputFile, outputFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // The transcoder does not surface records, so its first file stands in for the first record
+            firstRecord();
+            return;
+        }
+
+        if (mode == ProcessingMode.SEQUENTIAL && checkpointRecords > 0
+                && source instanceof SeekableSource<RawUser> seekableSource
+                && destination instanceof FileSink<TargetUser> fileSink && fileSink.supportsAppend()) {
+            try {
+                new CheckpointedTransfer<>(seekableSource, transformer, fileSink, checkpointRecords, batchSize, metrics)
+                        .run(inputFile, outputFile, checkpoint, users -> emitted(users, owner));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+
+        if (mode == ProcessingMode.STAGED) {
+            int transformers = stagedTransformers > 0 ? stagedTransformers : Runtime.getRuntime().availableProcessors();
+            try {
+                Sink<TargetUser, Path> target = deltaRun == null && deduplicator == null ? destination
+                        : (users, out) -> destination.write(emitted(users, owner), out);
+                new StagedPipeline<>(transformer, pools.stagePool(), batchSize, transformers, stagedQueueCapacity,
+                        ordered, metrics).run(source, inputFile, target, outputFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+            return;
+        }
 
-            // Write all transformed records
-            sink.write(transformedBatch.stream(), outputFile);
+        // Transform lazily in batches and stream them straight into the sink,
+        // so only a bounded number of batches per file is held in memory
+        try (Stream<RawUser> rawUsers = source.read(inputFile)) {
+            if (mode == ProcessingMode.SPLIT) {
+                writeSplit(rawUsers, outputFile, destination, owner);
+                return;
+            }
+            try (Stream<TargetUser> transformed = StageMetrics.timeWrites(
+                    transform(StageMetrics.timeReads(Batches.of(rawUsers, batchSize), metrics)), metrics)) {
+                destination.write(emitted(transformed, owner), outputFile);
+            }
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
+
+    // Runs the parallel stream inside the transform pool so it is split across its workers, not the common pool
+    private void writeSplit(Stream<RawUser> rawUsers, Path outputFile, Sink<TargetUser, Path> destination,
+            long owner) throws IOException {
+        Stream<TargetUser> transformed = emitted(rawUsers.parallel().unordered().map(transformer::transform),
+                owner);
+        await(pools.transformPool().submit(() -> {
+            destination.write(transformed, outputFile);
+            return null;
+        }), outputFile);
+    }
+
+    private static void await(Future<?> future, Path file) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing " + file, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to process " + file, cause);
+        }
+    }
+
+    private Stream<List<TargetUser>> transform(Stream<List<RawUser>> batches) {
+        return switch (mode) {
+            case SEQUENTIAL -> batches.map(batch -> ParallelTransform.transformBatch(batch, transformer, metrics));
+            case PARALLEL -> ParallelTransform.applyBatches(batches, transformer, pools.transformPool(),
+                    maxInFlightBatches > 0 ? maxInFlightBatches : workerCount() * 2, ordered, metrics);
+            case SPLIT, STAGED, FAST_PATH -> throw new IllegalStateException(mode + " mode does not transform batches");
+        };
+    }
+
+    // Accepts .json files, optionally compressed (.json.gz, .json.zst)
+    private static boolean isInputFile(Path path) {
+        String filename = path.getFileName().toString();
+        return Compression.fromFileName(filename).stripExtension(filename).endsWith(".json");
+    }
+
+    private String outputFileName(String inputFileName) {
+        Compression inputCompression = Compression.fromFileName(inputFileName);
+        Compression compression = outputCompression(inputCompression);
+        String jsonFileName = inputCompression.stripExtension(inputFileName);
+        // The fast path always writes JSON; otherwise the sink decides its own extension
+        if (mode == ProcessingMode.FAST_PATH || !(sink instanceof FileSink<TargetUser> fileSink)) {
+            return jsonFileName + compression.extension();
+        }
+        return jsonFileName.substring(0, jsonFileName.length() - ".json".length()) + fileSink.fileExtension(compression);
+    }
+
+    private Compression outputCompression(Compression inputCompression) {
+        return "same".equalsIgnoreCase(outputCompression) ? inputCompression
+                : Compression.valueOf(outputCompression.toUpperCase(Locale.ROOT));
+    }
+
+    private int workerCount() {
+        return parallelWorkers > 0 ? parallelWorkers : Runtime.getRuntime().availableProcessors();
+    }
 }
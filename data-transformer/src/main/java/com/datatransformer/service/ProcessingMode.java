@@ -0,0 +1,14 @@
+package com.datatransformer.service;
+
+public enum ProcessingMode {
+    // One thread per file: read, transform and write in sequence
+    SEQUENTIAL,
+    // Each file's reader thread hands record batches to a shared transform pool
+    PARALLEL,
+    // The source stream is made parallel and split across the transform pool; output order is not preserved
+    SPLIT,
+    // A reader thread, several transformer threads and the writing thread per file, linked by bounded batch queues
+    STAGED,
+    // Source, transformer and sink are bypassed by UserJsonTranscoder, which copies fields token by token
+    FAST_PATH
+}
@@ -0,0 +1,129 @@
+package com.datatransformer.service;
+
+import com.datatransformer.pipeline.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executors of one run or watch of {@link PipelineOrchestrator}: the pools shared by all files for
+ * record-level work, depending on the {@link ProcessingMode}, and the executor files are submitted to, depending
+ * on the {@link ExecutorType}. Closing shuts all of them down.
+ */
+final class WorkerPools implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerPools.class);
+
+    private final ExecutorService transformPool;
+    private final ExecutorService stagePool;
+    private ExecutorService fileExecutor;
+    private ExecutorService cpuPool;
+    private Semaphore admission;
+
+    private WorkerPools(ExecutorService transformPool, ExecutorService stagePool) {
+        this.transformPool = transformPool;
+        this.stagePool = stagePool;
+    }
+
+    static WorkerPools open(ProcessingMode mode, int workers) {
+        ExecutorService transformPool = mode == ProcessingMode.PARALLEL || mode == ProcessingMode.SPLIT
+                ? new ForkJoinPool(workers) : null;
+        ExecutorService stagePool = null;
+        if (mode == ProcessingMode.STAGED) {
+            // Cached, so every file can always start its reader and all of its transformers
+            AtomicInteger stageThreads = new AtomicInteger();
+            stagePool = Executors.newCachedThreadPool(
+                    task -> new Thread(task, "pipeline-stage-" + stageThreads.incrementAndGet()));
+        }
+        return new WorkerPools(transformPool, stagePool);
+    }
+
+    /**
+     * Starts the executor files are submitted to. A pool of {@code threads} threads runs a file each and, once
+     * {@code queueCapacity} files wait, the submitting thread processes the next one itself. The virtual executor
+     * runs every file on a thread of its own but parses, transforms and writes on a pool of {@code threads} CPU
+     * threads, admitting at most {@code maxInFlightFiles} files at once.
+     */
+    void startFileExecutor(ExecutorType executorType, int threads, int queueCapacity, int maxInFlightFiles) {
+        if (executorType == ExecutorType.VIRTUAL) {
+            AtomicInteger cpuThreads = new AtomicInteger();
+            cpuPool = Executors.newFixedThreadPool(threads,
+                    task -> new Thread(task, "pipeline-cpu-" + cpuThreads.incrementAndGet()));
+            admission = new Semaphore(maxInFlightFiles);
+            if (!VirtualThreads.isAvailable()) {
+                logger.info("Virtual threads are not available on this runtime, using platform threads per file");
+            }
+            fileExecutor = VirtualThreads.newThreadPerTaskExecutor("pipeline-file-");
+            return;
+        }
+        fileExecutor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    void submit(Runnable file) {
+        // Back-pressure for the virtual executor: wait for a free slot instead of processing the file here
+        Semaphore permits = admission;
+        if (permits != null) {
+            permits.acquireUninterruptibly();
+        }
+        fileExecutor.submit(() -> {
+            try {
+                file.run();
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        });
+    }
+
+    // Waits for the submitted files to finish, cancelling them after the timeout; returns whether all finished
+    boolean drain(Duration timeout) {
+        fileExecutor.shutdown();
+        try {
+            if (!fileExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                fileExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            fileExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        return fileExecutor.isTerminated();
+    }
+
+    // Null when each file is parsed, transformed and written on its own thread
+    ExecutorService cpuPool() {
+        return cpuPool;
+    }
+
+    ExecutorService transformPool() {
+        return transformPool;
+    }
+
+    ExecutorService stagePool() {
+        return stagePool;
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService pool : new ExecutorService[] {fileExecutor, transformPool, stagePool, cpuPool}) {
+            if (pool != null && !pool.isTerminated()) {
+                pool.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.TargetUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcSinkTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JdbcSink sink = new JdbcSink(meterRegistry);
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        ReflectionTestUtils.setField(sink, "batchSize", 100);
+        ReflectionTestUtils.setField(sink, "writers", 3);
+    }
+
+    @Test
+    void write_shouldUpsertUsers_whenIdsAreWrittenAgain() throws Exception {
+        // Arrange
+        sink.write(users(0, 1_000, "old"), dataSource);
+
+        // Act: the second file repeats 900 ids and adds 100
+        sink.write(users(100, 1_100, "new"), dataSource);
+
+        // Assert
+        assertThat(query("SELECT COUNT(*) FROM users")).isEqualTo("1100");
+        assertThat(query("SELECT \"mail\" FROM users WHERE \"Id\" = '50'")).isEqualTo("old-50@example.com");
+        assertThat(query("SELECT \"mail\" FROM users WHERE \"Id\" = '500'")).isEqualTo("new-500@example.com");
+        assertThat(query("SELECT COUNT(*) FROM users WHERE \"is_enabled\" AND \"location\" IS NULL")).isEqualTo("550");
+    }
+
+    @Test
+    void write_shouldSkipAndCountUsers_whenIdIsNull() throws Exception {
+        // Arrange
+        TargetUser anonymous = new TargetUser(null, "ext-anonymous", "anonymous@example.com", "Member", null, true,
+                null, null, null, null, null);
+
+        // Act
+        sink.write(Stream.concat(users(0, 10, "any"), Stream.of(anonymous)), dataSource);
+
+        // Assert
+        assertThat(query("SELECT COUNT(*) FROM users")).isEqualTo("10");
+        assertThat(meterRegistry.counter("users.jdbc.skipped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void write_shouldFail_whenTableDoesNotExist() {
+        // Arrange
+        ReflectionTestUtils.setField(sink, "createTable", false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> sink.write(users(0, 10, "any"), dataSource))
+                .isInstanceOf(IOException.class)
+                .hasCauseInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void write_shouldUseSchemaQualifiedTable_whenTableHasSchema() throws Exception {
+        // Arrange
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA staging");
+        }
+        ReflectionTestUtils.setField(sink, "table", "staging.users");
+        sink.validateTable();
+
+        // Act
+        sink.write(users(0, 10, "any"), dataSource);
+
+        // Assert
+        assertThat(query("SELECT COUNT(*) FROM staging.users")).isEqualTo("10");
+    }
+
+    @Test
+    void validateTable_shouldFail_whenTableIsNotAnIdentifier() {
+        // Arrange
+        ReflectionTestUtils.setField(sink, "table", "users; DROP TABLE users");
+
+        // Act & Assert
+        assertThatThrownBy(sink::validateTable)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pipeline.sink.jdbc.table");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sink.close();
+    }
+
+    private static Stream<TargetUser> users(int from, int to, String version) {
+        return IntStream.range(from, to).mapToObj(i -> new TargetUser(String.valueOf(i), "ext-" + i,
+                version + "-" + i + "@example.com", "Member", i % 2 == 0 ? null : "US", i % 2 == 0, "First", "Last",
+                null, null, null));
+    }
+
+    private String query(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
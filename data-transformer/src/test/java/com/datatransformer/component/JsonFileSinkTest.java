@@ -1,14 +1,20 @@
 package com.datatransformer.component;
 
 import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.Compression;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -50,4 +56,61 @@ class JsonFileSinkTest {
         assertThatThrownBy(() -> sink.write(userStream, invalidPath))
                 .isInstanceOf(UncheckedIOException.class);
     }
+
+    @Test
+    void write_shouldWriteOneUtf8RecordPerLine_whenStreamHasManyUsers(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path outputFile = tempDir.resolve("output.json");
+        Stream<TargetUser> userStream = Stream.of(
+                new TargetUser("1", "jos\u00e9@example.com", null, null, null, true, null, null, null, null, null),
+                new TargetUser("2", "ext-2", null, null, null, false, null, null, null, null, null));
+
+        // Act
+        sink.write(userStream, outputFile);
+
+        // Assert
+        List<String> lines = Files.readAllLines(outputFile, StandardCharsets.UTF_8);
+        assertThat(lines).containsExactly(
+                "{\"Id\":\"1\",\"external_id\":\"jos\u00e9@example.com\",\"is_enabled\":true}",
+                "{\"Id\":\"2\",\"external_id\":\"ext-2\",\"is_enabled\":false}");
+        assertThat(Files.readString(outputFile)).endsWith("}\n");
+    }
+
+    @Test
+    void write_shouldWriteSameLinesAsSequentialStream_whenStreamIsParallel(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        List<TargetUser> users = IntStream.range(0, 5_000)
+                .mapToObj(i -> new TargetUser(String.valueOf(i), "ext-" + i, null, "Member", "US", i % 2 == 0,
+                        "First", "Last", null, null, null))
+                .toList();
+        Path sequentialFile = tempDir.resolve("sequential.json");
+        Path parallelFile = tempDir.resolve("parallel.json");
+        sink.write(users.stream(), sequentialFile);
+
+        // Act
+        sink.write(users.parallelStream(), parallelFile);
+
+        // Assert
+        assertThat(Files.readAllLines(parallelFile))
+                .containsExactlyInAnyOrderElementsOf(Files.readAllLines(sequentialFile));
+        assertThat(Files.size(parallelFile)).isEqualTo(Files.size(sequentialFile));
+    }
+
+    @Test
+    void write_shouldCompressOutput_whenExtensionIsZstd(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path outputFile = tempDir.resolve("output.json.zst");
+        ReflectionTestUtils.setField(sink, "compressionWorkers", 2);
+        TargetUser user = new TargetUser(
+                "1", "ext-1", "mail@example.com", "Member", "US", true, "First", "Last", null, null, null);
+
+        // Act
+        sink.write(Stream.of(user, user), outputFile);
+
+        // Assert
+        try (InputStream in = Compression.ZSTD.decompress(Files.newInputStream(outputFile))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(content.lines()).hasSize(2).allMatch(line -> line.contains("ext-1"));
+        }
+    }
 }
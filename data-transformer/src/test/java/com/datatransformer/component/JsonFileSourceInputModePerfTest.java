@@ -0,0 +1,54 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.RawUser;
+import com.datatransformer.testutil.TestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares read throughput of the stream and mmap input modes. Run with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+class JsonFileSourceInputModePerfTest {
+
+    private static final long RECORDS = Long.getLong("perf.input-mode.records", 500_000L);
+    private static final int ROUNDS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void read_shouldReportThroughput_forEachInputMode(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("users.json");
+        TestUtil.writeSyntheticRawUserJson(file, RECORDS);
+        long bytes = Files.size(file);
+
+        for (JsonFileSource.InputMode mode : JsonFileSource.InputMode.values()) {
+            JsonFileSource source = new JsonFileSource(objectMapper);
+            ReflectionTestUtils.setField(source, "inputMode", mode);
+
+            // First round warms up the JIT and page cache
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                try (Stream<RawUser> users = source.read(file)) {
+                    assertThat(users.count()).isEqualTo(RECORDS);
+                }
+                if (round > 0) {
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+            }
+            System.out.printf("JsonFileSource %-6s %8.1f MB/s %12.0f records/s%n", mode,
+                    bytes / (best / 1e9) / (1024 * 1024), RECORDS / (best / 1e9));
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.datatransformer.component;
 
 import com.datatransformer.model.RawUser;
+import com.datatransformer.pipeline.Compression;
+import com.datatransformer.pipeline.interfaces.SeekableSource;
 import com.datatransformer.testutil.TestUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -47,4 +55,94 @@ class JsonFileSourceTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Expected 'value' to be an array");
     }
+
+    @Test
+    void read_shouldReturnAllUsers_whenStreamIsParallel(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path tempFile = tempDir.resolve("users.json");
+        TestUtil.writeSyntheticRawUserJson(tempFile, 5_000);
+
+        // Act
+        try (Stream<RawUser> result = source.read(tempFile)) {
+            long count = result.parallel().map(RawUser::id).distinct().count();
+
+            // Assert
+            assertThat(count).isEqualTo(5_000);
+        }
+    }
+
+    @Test
+    void read_shouldReturnSameUsers_whenInputModeIsMmap(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path tempFile = tempDir.resolve("users.json");
+        TestUtil.writeSyntheticRawUserJson(tempFile, 1_000);
+        JsonFileSource mappedSource = new JsonFileSource(objectMapper);
+        ReflectionTestUtils.setField(mappedSource, "inputMode", JsonFileSource.InputMode.MMAP);
+
+        // Act
+        try (Stream<RawUser> streamed = source.read(tempFile); Stream<RawUser> mapped = mappedSource.read(tempFile)) {
+
+            // Assert
+            assertThat(mapped.toList()).containsExactlyElementsOf(streamed.toList());
+        }
+    }
+
+    @Test
+    void read_shouldDecompressInput_whenFileIsGzipOrZstd(@TempDir Path tempDir) throws IOException {
+        for (Compression compression : new Compression[] { Compression.GZIP, Compression.ZSTD }) {
+            // Arrange
+            Path tempFile = tempDir.resolve("users.json" + compression.extension());
+            try (OutputStream out = compression.compress(Files.newOutputStream(tempFile), -1, 0)) {
+                out.write(TestUtil.getSampleRawUserJson().getBytes(StandardCharsets.UTF_8));
+            }
+
+            // Act
+            try (Stream<RawUser> result = source.read(tempFile)) {
+                List<RawUser> users = result.toList();
+
+                // Assert
+                assertThat(users).extracting(RawUser::id).containsExactly("1");
+            }
+        }
+    }
+
+    @Test
+    void open_shouldContinueAfterLastRecordRead_whenReopenedAtCursorOffset(@TempDir Path tempDir) throws IOException {
+        // Arrange: a pretty-printed export, so resuming also has to skip whitespace between records
+        Path compact = tempDir.resolve("compact.json");
+        TestUtil.writeSyntheticRawUserJson(compact, 1_000);
+        Path plain = tempDir.resolve("users.json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(plain.toFile(), objectMapper.readTree(compact.toFile()));
+        Path gzip = tempDir.resolve("users.json.gz");
+        try (OutputStream out = Compression.GZIP.compress(Files.newOutputStream(gzip), -1, 0)) {
+            Files.copy(plain, out);
+        }
+        JsonFileSource mappedSource = new JsonFileSource(objectMapper);
+        ReflectionTestUtils.setField(mappedSource, "inputMode", JsonFileSource.InputMode.MMAP);
+
+        for (Object[] scenario : new Object[][] { { source, plain }, { mappedSource, plain }, { source, gzip } }) {
+            JsonFileSource scenarioSource = (JsonFileSource) scenario[0];
+            Path input = (Path) scenario[1];
+
+            // Act
+            long offset;
+            try (SeekableSource.Cursor<RawUser> cursor = scenarioSource.open(input, 0)) {
+                for (int i = 0; i < 300; i++) {
+                    cursor.next();
+                }
+                offset = cursor.offset();
+            }
+            List<String> resumedIds = new ArrayList<>();
+            try (SeekableSource.Cursor<RawUser> cursor = scenarioSource.open(input, offset)) {
+                RawUser user;
+                while ((user = cursor.next()) != null) {
+                    resumedIds.add(user.id());
+                }
+            }
+
+            // Assert
+            assertThat(resumedIds).as(input.getFileName().toString())
+                    .containsExactlyElementsOf(LongStream.range(300, 1_000).mapToObj(Long::toString).toList());
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.TargetUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParquetFileSinkTest {
+
+    private final ParquetFileSink sink = new ParquetFileSink();
+
+    @Test
+    void schema_shouldUseJsonPropertyNames_whenDerivedFromTargetUser() {
+        // Arrange
+        List<String> jsonNames = new ObjectMapper().getSerializationConfig()
+                .introspect(new ObjectMapper().constructType(TargetUser.class))
+                .findProperties().stream()
+                .map(BeanPropertyDefinition::getName)
+                .toList();
+
+        // Act
+        List<String> columns = ParquetFileSink.SCHEMA.getFields().stream().map(Type::getName).toList();
+
+        // Assert
+        assertThat(columns).containsExactlyInAnyOrderElementsOf(jsonNames);
+    }
+
+    @Test
+    void write_shouldRoundTripUsers_whenSomeFieldsAreNull(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path outputFile = tempDir.resolve("output.parquet");
+        TargetUser full = new TargetUser("1", "ext-1", "mail@example.com", "Member", "US", true, "Zoë", "Last",
+                "2023-01-01", "2023-01-02", "2023-01-03");
+        TargetUser sparse = new TargetUser("2", "ext-2", null, "Guest", null, false, null, null, null, null, null);
+
+        // Act
+        sink.write(Stream.of(full, sparse), outputFile);
+
+        // Assert
+        List<Group> rows = readRows(outputFile);
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).getString("first_name", 0)).isEqualTo("Zoë");
+        assertThat(rows.get(0).getBoolean("is_enabled", 0)).isTrue();
+        assertThat(rows.get(1).getString("Id", 0)).isEqualTo("2");
+        assertThat(rows.get(1).getFieldRepetitionCount("mail")).isZero();
+        assertThat(rows.get(1).getBoolean("is_enabled", 0)).isFalse();
+    }
+
+    @Test
+    void write_shouldSplitRowGroupsAndDictionaryEncodeConfiguredColumns_whenOutputIsLarge(@TempDir Path tempDir)
+            throws IOException {
+        // Arrange
+        Path outputFile = tempDir.resolve("output.parquet");
+        ReflectionTestUtils.setField(sink, "rowGroupSize", 256 * 1024L);
+        ReflectionTestUtils.setField(sink, "pageSize", 64 * 1024);
+        Stream<TargetUser> users = IntStream.range(0, 50_000).mapToObj(i -> new TargetUser(
+                "id-" + i, "ext-" + i, "user" + i + "@example.com", i % 2 == 0 ? "Member" : "Guest", "US",
+                true, "First" + i, "Last" + i, null, null, null));
+
+        // Act
+        sink.write(users, outputFile);
+
+        // Assert
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(outputFile))) {
+            List<BlockMetaData> rowGroups = reader.getFooter().getBlocks();
+            assertThat(reader.getRecordCount()).isEqualTo(50_000);
+            assertThat(rowGroups).hasSizeGreaterThan(1);
+            Map<String, ColumnChunkMetaData> columns = rowGroups.get(0).getColumns().stream()
+                    .collect(Collectors.toMap(column -> column.getPath().toDotString(), column -> column));
+            assertThat(columns.get("type").getEncodings()).anyMatch(Encoding::usesDictionary);
+            assertThat(columns.get("Id").getEncodings()).noneMatch(Encoding::usesDictionary);
+        }
+    }
+
+    private static List<Group> readRows(Path file) throws IOException {
+        List<Group> rows = new ArrayList<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file))) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            PageReadStore pages;
+            while ((pages = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> recordReader = new ColumnIOFactory().getColumnIO(schema)
+                        .getRecordReader(pages, new GroupRecordConverter(schema));
+                for (long i = 0; i < pages.getRowCount(); i++) {
+                    rows.add(recordReader.read());
+                }
+            }
+        }
+        return rows;
+    }
+}
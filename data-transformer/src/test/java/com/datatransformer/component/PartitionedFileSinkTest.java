@@ -0,0 +1,124 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.Compression;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartitionedFileSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PartitionedFileSink sink = new PartitionedFileSink(objectMapper);
+
+    @Test
+    void write_shouldSpreadUsersEvenlyByIdHash_whenStreamIsParallel(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path output = tempDir.resolve("users.json");
+        ReflectionTestUtils.setField(sink, "count", 4);
+
+        // Act
+        sink.write(users(20_000).parallel(), output);
+
+        // Assert: every user is written once, and all records of an id share a partition
+        Map<String, List<String>> idsByFile = idsByFile(output);
+        assertThat(idsByFile).hasSize(4);
+        assertThat(idsByFile.values().stream().mapToInt(List::size).sum()).isEqualTo(20_000);
+        assertThat(idsByFile.values().stream().flatMap(List::stream).distinct()).hasSize(20_000);
+        assertThat(idsByFile.values()).allSatisfy(ids -> assertThat(ids.size()).isBetween(4_500, 5_500));
+    }
+
+    @Test
+    void validateCount_shouldFail_whenCountIsNotPositive() {
+        // Arrange
+        ReflectionTestUtils.setField(sink, "count", 0);
+
+        // Act & Assert
+        assertThatThrownBy(sink::validateCount)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pipeline.sink.partition.count");
+    }
+
+    @Test
+    void write_shouldRollOverPartitionFiles_whenRecordLimitIsReached(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path output = tempDir.resolve("users.json.gz");
+        ReflectionTestUtils.setField(sink, "count", 1);
+        ReflectionTestUtils.setField(sink, "maxRecords", 100L);
+        Files.createDirectories(output);
+        Files.writeString(output.resolve("part-00000-00009.json.gz"), "left by an earlier attempt");
+
+        // Act
+        sink.write(users(250), output);
+
+        // Assert
+        Map<String, List<String>> idsByFile = idsByFile(output);
+        assertThat(idsByFile.keySet())
+                .containsExactly("part-00000-00000.json.gz", "part-00000-00001.json.gz", "part-00000-00002.json.gz");
+        assertThat(idsByFile.get("part-00000-00002.json.gz")).hasSize(50);
+    }
+
+    @Test
+    void write_shouldRouteUsersByLocationRange_whenBoundariesAreSet(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path output = tempDir.resolve("users.json");
+        ReflectionTestUtils.setField(sink, "key", PartitionedFileSink.PartitionKey.LOCATION);
+        ReflectionTestUtils.setField(sink, "strategy", PartitionedFileSink.Strategy.RANGE);
+        ReflectionTestUtils.setField(sink, "boundaries", List.of("DE", "US"));
+        Stream<TargetUser> users = Stream.of("US", "AT", null, "FR", "DE", "ZA").map(location -> new TargetUser(
+                String.valueOf(location), null, null, null, location, null, null, null, null, null, null));
+
+        // Act
+        sink.write(users, output);
+
+        // Assert: users without a location go to the first partition
+        assertThat(idsByFile(output)).containsExactly(
+                Map.entry("part-00000-00000.json", List.of("AT", "null")),
+                Map.entry("part-00001-00000.json", List.of("FR", "DE")),
+                Map.entry("part-00002-00000.json", List.of("US", "ZA")));
+    }
+
+    private static Stream<TargetUser> users(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new TargetUser(UUID.randomUUID().toString(), "ext-" + i,
+                null, "Member", "US", true, null, null, null, null, null));
+    }
+
+    // Ids per part file, in file name order
+    private Map<String, List<String>> idsByFile(Path output) throws IOException {
+        Map<String, List<String>> idsByFile = new TreeMap<>();
+        try (Stream<Path> files = Files.list(output)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String content;
+                try (InputStream input = Compression.fromFileName(file.toString()).decompress(Files.newInputStream(file))) {
+                    content = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                List<String> ids = content.lines().map(line -> {
+                    try {
+                        return objectMapper.readTree(line).get("Id").textValue();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).toList();
+                idsByFile.put(file.getFileName().toString(), ids);
+            }
+        }
+        return idsByFile;
+    }
+}
@@ -0,0 +1,100 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.RawUser;
+import com.datatransformer.testutil.TestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SplittableJsonFileSourceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SplittableJsonFileSource source = new SplittableJsonFileSource(objectMapper);
+
+    @Test
+    void read_shouldReturnAllUsersInOrder_whenFileSpansManyChunks(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(source, "chunkSize", 1024);
+        Path tempFile = tempDir.resolve("users.json");
+        TestUtil.writeSyntheticRawUserJson(tempFile, 1_000);
+
+        // Act
+        try (Stream<RawUser> result = source.read(tempFile)) {
+            List<String> ids = result.map(RawUser::id).toList();
+
+            // Assert
+            assertThat(ids).containsExactlyElementsOf(
+                    LongStream.range(0, 1_000).mapToObj(Long::toString).toList());
+        }
+    }
+
+    @Test
+    void read_shouldSplitAcrossThreads_whenStreamIsParallel(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(source, "chunkSize", 1024);
+        Path tempFile = tempDir.resolve("users.json");
+        TestUtil.writeSyntheticRawUserJson(tempFile, 1_000);
+
+        // Act
+        try (Stream<RawUser> result = source.read(tempFile)) {
+            Spliterator<RawUser> spliterator = result.spliterator();
+            Spliterator<RawUser> prefix = spliterator.trySplit();
+
+            // Assert
+            assertThat(prefix).isNotNull();
+            assertThat(prefix.estimateSize() + spliterator.estimateSize()).isEqualTo(1_000);
+        }
+        try (Stream<RawUser> result = source.read(tempFile)) {
+            assertThat(result.parallel().map(RawUser::id).distinct().count()).isEqualTo(1_000);
+        }
+    }
+
+    @Test
+    void read_shouldHandleBracesAndEscapesInsideStrings(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(source, "chunkSize", 1);
+        Path tempFile = tempDir.resolve("tricky.json");
+        TestUtil.createSampleJsonFile(tempFile, """
+                {
+                    "@odata.nextLink": "https://graph/users?$skip={token}]",
+                    "value": [
+                        { "id": "1", "givenName": "Brace { [ \\" }" },
+                        { "id": "2", "surname": "Back\\\\", "extra": { "nested": [1, {"a": "}"}] } }
+                    ]
+                }
+                """);
+
+        // Act
+        try (Stream<RawUser> result = source.read(tempFile)) {
+            List<RawUser> users = result.toList();
+
+            // Assert
+            assertThat(users).extracting(RawUser::id).containsExactly("1", "2");
+            assertThat(users.get(0).givenName()).isEqualTo("Brace { [ \" }");
+            assertThat(users.get(1).surname()).isEqualTo("Back\\");
+        }
+    }
+
+    @Test
+    void read_shouldThrowException_whenFileIsInvalid(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path tempFile = tempDir.resolve("invalid.json");
+        TestUtil.createSampleJsonFile(tempFile, "{ \"value\": \"not-an-array\" }");
+
+        // Act & Assert
+        assertThatThrownBy(() -> source.read(tempFile))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Expected 'value' to be an array");
+    }
+}
@@ -0,0 +1,64 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.RawUser;
+import com.datatransformer.testutil.TestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares heap allocation per record of the fast path against source + transformer + sink.
+ * Run with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+class UserJsonTranscoderPerfTest {
+
+    private static final long RECORDS = Long.getLong("perf.transcoder.records", 200_000L);
+    private static final int ROUNDS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void transcode_shouldAllocateLessPerRecord_thanObjectPath(@TempDir Path tempDir) throws IOException {
+        Path input = tempDir.resolve("users.json");
+        Path output = tempDir.resolve("output.json");
+        TestUtil.writeSyntheticRawUserJson(input, RECORDS);
+
+        JsonFileSource source = new JsonFileSource(objectMapper);
+        UserTransformer transformer = new UserTransformer();
+        JsonFileSink sink = new JsonFileSink(objectMapper);
+        UserJsonTranscoder transcoder = new UserJsonTranscoder(objectMapper);
+
+        long objectPath = Long.MAX_VALUE;
+        long fastPath = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = allocatedBytes();
+            try (Stream<RawUser> users = source.read(input)) {
+                sink.write(users.map(transformer::transform), output);
+            }
+            objectPath = Math.min(objectPath, allocatedBytes() - before);
+
+            before = allocatedBytes();
+            transcoder.transcode(input, output);
+            fastPath = Math.min(fastPath, allocatedBytes() - before);
+        }
+
+        System.out.printf("Allocated per record: source+transformer+sink %.0f B, fast path %.0f B%n",
+                (double) objectPath / RECORDS, (double) fastPath / RECORDS);
+        assertThat(fastPath).isLessThan(objectPath / 4);
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
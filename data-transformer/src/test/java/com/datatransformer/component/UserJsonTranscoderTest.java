@@ -0,0 +1,174 @@
+package com.datatransformer.component;
+
+import com.datatransformer.model.RawUser;
+import com.datatransformer.service.ProcessingMode;
+import com.datatransformer.testutil.TestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserJsonTranscoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserJsonTranscoder transcoder = new UserJsonTranscoder(objectMapper);
+
+    @Test
+    void transcode_shouldMatchTransformerAndSinkOutput_whenFileIsValid(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path input = tempDir.resolve("users.json");
+        TestUtil.createSampleJsonFile(input, """
+                {
+                    "@odata.context": "https://graph.microsoft.com/v1.0/$metadata#users",
+                    "value": [
+                        {
+                            "businessPhones": ["+1 555 0100"],
+                            "id": "1",
+                            "userPrincipalName": "jos\\u00e9@example.com",
+                            "mail": null,
+                            "userType": "Guest",
+                            "accountEnabled": false,
+                            "givenName": "Quote \\" and \\\\ backslash",
+                            "surname": "Tab\\tNewline\\n",
+                            "signInActivity": {
+                                "lastSignInDateTime": "2024-01-15T10:30:00Z",
+                                "lastSignInRequestId": "358c844b"
+                            }
+                        },
+                        { "id": 42, "accountEnabled": null, "signInActivity": null, "extra": { "nested": [1, 2] } },
+                        { "surname": "Last", "usageLocation": "IL", "accountEnabled": true, "id": "3" }
+                    ]
+                }
+                """);
+        Path expected = tempDir.resolve("expected.json");
+        Path actual = tempDir.resolve("actual.json");
+        writeReference(input, expected);
+
+        // Act
+        long count = transcoder.transcode(input, actual);
+
+        // Assert
+        assertThat(count).isEqualTo(3);
+        assertThat(Files.readAllBytes(actual)).isEqualTo(Files.readAllBytes(expected));
+    }
+
+    @Test
+    void transcode_shouldMatchTransformerAndSinkOutput_forSyntheticExport(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path input = tempDir.resolve("users.json");
+        TestUtil.writeSyntheticRawUserJson(input, 1_000);
+        Path expected = tempDir.resolve("expected.json");
+        Path actual = tempDir.resolve("actual.json");
+        writeReference(input, expected);
+
+        // Act
+        transcoder.transcode(input, actual);
+
+        // Assert
+        assertThat(Files.readAllBytes(actual)).isEqualTo(Files.readAllBytes(expected));
+    }
+
+    @Test
+    void transcode_shouldMatchSinkOutput_whenBufferIsSmallAndFsyncIsOnClose(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path input = tempDir.resolve("users.json");
+        TestUtil.writeSyntheticRawUserJson(input, 200);
+        Path expected = tempDir.resolve("expected.json");
+        Path actual = tempDir.resolve("actual.json");
+        writeReference(input, expected);
+        ReflectionTestUtils.setField(transcoder, "bufferSize", 16);
+        ReflectionTestUtils.setField(transcoder, "fsyncPolicy", JsonFileSink.FsyncPolicy.ON_CLOSE);
+
+        // Act
+        transcoder.transcode(input, actual);
+
+        // Assert
+        assertThat(Files.readAllBytes(actual)).isEqualTo(Files.readAllBytes(expected));
+    }
+
+    @Test
+    void transcode_shouldThrowException_whenFileIsInvalid(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path input = tempDir.resolve("invalid.json");
+        TestUtil.createSampleJsonFile(input, "{ \"value\": \"not-an-array\" }");
+
+        // Act & Assert
+        assertThatThrownBy(() -> transcoder.transcode(input, tempDir.resolve("out.json")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Expected 'value' to be an array");
+    }
+
+    @Test
+    void validateFastPath_shouldFail_whenFastPathUsesParquetSink() {
+        // Arrange
+        ReflectionTestUtils.setField(transcoder, "mode", ProcessingMode.FAST_PATH);
+        ReflectionTestUtils.setField(transcoder, "sinkType", "parquet");
+
+        // Act & Assert
+        assertThatThrownBy(transcoder::validateFastPath)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pipeline.sink.type=parquet");
+    }
+
+    @Test
+    void validateFastPath_shouldFail_whenFastPathUsesPartitionedSink() {
+        // Arrange
+        ReflectionTestUtils.setField(transcoder, "mode", ProcessingMode.FAST_PATH);
+        ReflectionTestUtils.setField(transcoder, "sinkType", "partitioned");
+
+        // Act & Assert
+        assertThatThrownBy(transcoder::validateFastPath)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pipeline.sink.type=partitioned");
+    }
+
+    @Test
+    void validateFastPath_shouldFail_whenFastPathUsesJdbcSink() {
+        // Arrange
+        ReflectionTestUtils.setField(transcoder, "mode", ProcessingMode.FAST_PATH);
+        ReflectionTestUtils.setField(transcoder, "sinkType", "jdbc");
+
+        // Act & Assert
+        assertThatThrownBy(transcoder::validateFastPath)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pipeline.sink.type=jdbc");
+    }
+
+    @Test
+    void validateFastPath_shouldFail_whenFastPathUsesMappingTransformer() {
+        // Arrange
+        ReflectionTestUtils.setField(transcoder, "mode", ProcessingMode.FAST_PATH);
+        ReflectionTestUtils.setField(transcoder, "transformerType", "mapping");
+
+        // Act & Assert
+        assertThatThrownBy(transcoder::validateFastPath)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pipeline.transformer.type=mapping");
+    }
+
+    @Test
+    void validateFastPath_shouldPass_whenOtherModeUsesParquetSink() {
+        // Arrange
+        ReflectionTestUtils.setField(transcoder, "mode", ProcessingMode.SEQUENTIAL);
+        ReflectionTestUtils.setField(transcoder, "sinkType", "parquet");
+
+        // Act & Assert
+        assertThatCode(transcoder::validateFastPath).doesNotThrowAnyException();
+    }
+
+    private void writeReference(Path input, Path output) throws IOException {
+        UserTransformer transformer = new UserTransformer();
+        try (Stream<RawUser> users = new JsonFileSource(objectMapper).read(input)) {
+            new JsonFileSink(objectMapper).write(users.map(transformer::transform), output);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.datatransformer.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcSinkConfigTest {
+
+    private final JdbcSinkConfig config = new JdbcSinkConfig();
+
+    @Test
+    void sinkDataSource_shouldFail_whenNoDriverAcceptsUrl() {
+        // Arrange
+        ReflectionTestUtils.setField(config, "url", "jdbc:nosuchdb://localhost/users");
+
+        // Act & Assert
+        assertThatThrownBy(config::sinkDataSource)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No JDBC driver");
+    }
+}
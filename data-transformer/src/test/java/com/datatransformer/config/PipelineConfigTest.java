@@ -0,0 +1,53 @@
+package com.datatransformer.config;
+
+import com.datatransformer.model.RawUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineConfigTest {
+
+    private static final String USER = """
+            {"id": "%s", "mail": "%s@contoso.com", "userType": "Member", "usageLocation": "US", "givenName": "Ann"}
+            """;
+
+    @Test
+    void objectMapper_shouldShareInternedFieldValues_whenReadingUsers() throws Exception {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new PipelineConfig().objectMapper(meterRegistry);
+
+        // Act
+        RawUser first = objectMapper.readValue(USER.formatted("1", "ann"), RawUser.class);
+        RawUser second = objectMapper.readValue(USER.formatted("2", "ann.b"), RawUser.class);
+
+        // Assert
+        assertThat(second.userType()).isSameAs(first.userType()).isEqualTo("Member");
+        assertThat(second.usageLocation()).isSameAs(first.usageLocation()).isEqualTo("US");
+        assertThat(second.givenName()).isEqualTo(first.givenName()).isNotSameAs(first.givenName());
+        assertThat(meterRegistry.get("json.strings.canonical").tag("field", "userType").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("json.strings.canonical.hit.ratio").tag("field", "usageLocation")
+                .gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void objectMapper_shouldAllocateEveryValue_whenNoFieldsAreInterned() throws Exception {
+        // Arrange
+        PipelineConfig config = new PipelineConfig();
+        ReflectionTestUtils.setField(config, "internFields", List.of());
+        ObjectMapper objectMapper = config.objectMapper(new SimpleMeterRegistry());
+
+        // Act
+        RawUser first = objectMapper.readValue(USER.formatted("1", "ann"), RawUser.class);
+        RawUser second = objectMapper.readValue(USER.formatted("2", "ann.b"), RawUser.class);
+
+        // Assert
+        assertThat(second.userType()).isEqualTo(first.userType()).isNotSameAs(first.userType());
+    }
+}
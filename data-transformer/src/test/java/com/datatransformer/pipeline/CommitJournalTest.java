@@ -0,0 +1,54 @@
+package com.datatransformer.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommitJournalTest {
+
+    @Test
+    void open_shouldRestoreCommittedEntries_whenJournalIsReopened(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path journalFile = tempDir.resolve("journal");
+        try (CommitJournal journal = CommitJournal.open(journalFile)) {
+            journal.commit("users.json", 10, 1_700_000_000_000L, "users.json");
+        }
+
+        // Act
+        try (CommitJournal journal = CommitJournal.open(journalFile)) {
+
+            // Assert
+            assertThat(journal.contains("users.json", 10, 1_700_000_000_000L)).isTrue();
+            assertThat(journal.contains("users.json", 11, 1_700_000_000_000L)).isFalse();
+            assertThat(journal.contains("users.json", 10, 1_700_000_000_001L)).isFalse();
+            assertThat(journal.contains("other.json", 10, 1_700_000_000_000L)).isFalse();
+        }
+    }
+
+    @Test
+    void open_shouldDropTornLastLine_whenCommitWasInterrupted(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path journalFile = tempDir.resolve("journal");
+        try (CommitJournal journal = CommitJournal.open(journalFile)) {
+            journal.commit("a.json", 1, 100, "a.json");
+        }
+        Files.writeString(journalFile, "b.json\t2\t20", StandardOpenOption.APPEND);
+
+        // Act
+        try (CommitJournal journal = CommitJournal.open(journalFile)) {
+            journal.commit("c.json", 3, 300, "c.json");
+
+            // Assert
+            assertThat(journal.contains("a.json", 1, 100)).isTrue();
+            assertThat(journal.contains("b.json", 2, 20)).isFalse();
+        }
+        assertThat(Files.readAllLines(journalFile))
+                .containsExactly("a.json\t1\t100\ta.json", "c.json\t3\t300\tc.json");
+    }
+}
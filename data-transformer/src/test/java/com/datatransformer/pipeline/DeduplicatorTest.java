@@ -0,0 +1,72 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.interfaces.Source;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeduplicatorTest {
+
+    @Test
+    void kept_shouldKeepFirstCopyAndCountOthers_whenPolicyIsFirstWins() {
+        // Arrange
+        AtomicInteger dropped = new AtomicInteger();
+        Deduplicator deduplicator = new Deduplicator(DedupPolicy.FIRST_WINS, 2, dropped::incrementAndGet);
+
+        // Act
+        List<TargetUser> first = deduplicator.kept(Stream.of(user("1", null), user(null, null)),
+                IdIndex.owner(1, 0)).toList();
+        List<TargetUser> second = deduplicator.kept(Stream.of(user("1", null), user("2", null)),
+                IdIndex.owner(2, 0)).toList();
+
+        // Assert
+        assertThat(first).extracting(TargetUser::id).containsExactly("1", null);
+        assertThat(second).extracting(TargetUser::id).containsExactly("2");
+        assertThat(dropped).hasValue(1);
+    }
+
+    @Test
+    void scan_shouldKeepLatestSignInAndFailUnreadableFile_whenPolicyIsLastWins() throws InterruptedException {
+        // Arrange
+        Path older = Path.of("older.json");
+        Path newer = Path.of("newer.json");
+        Path broken = Path.of("broken.json");
+        Map<Path, List<TargetUser>> files = Map.of(
+                older, List.of(user("1", "2024-01-01T00:00:00Z")),
+                newer, List.of(user("1", "2024-06-01T00:00:00+02:00")),
+                broken, List.of(user("1", "2023-01-01T00:00:00Z")));
+        Source<TargetUser, Path> source = file -> {
+            if (file.equals(broken)) {
+                return Stream.concat(files.get(file).stream(), Stream.generate(() -> {
+                    throw new IllegalStateException("Truncated input");
+                }));
+            }
+            return files.get(file).stream();
+        };
+        List<Path> failed = new ArrayList<>();
+        AtomicInteger fileIds = new AtomicInteger();
+        Deduplicator deduplicator = new Deduplicator(DedupPolicy.LAST_WINS, 2, () -> { });
+
+        // Act
+        deduplicator.scan(List.of(new WorkStealingScheduler.Job<>(older, 1), new WorkStealingScheduler.Job<>(newer, 1),
+                new WorkStealingScheduler.Job<>(broken, 1)), 1, source, user -> user, fileIds::incrementAndGet,
+                (file, e) -> failed.add(file));
+
+        // Assert
+        assertThat(failed).containsExactly(broken);
+        assertThat(deduplicator.kept(files.get(older).stream(), IdIndex.owner(11, 0))).isEmpty();
+        assertThat(deduplicator.kept(files.get(newer).stream(), IdIndex.owner(12, 0))).hasSize(1);
+    }
+
+    private static TargetUser user(String id, String lastSignIn) {
+        return new TargetUser(id, null, null, null, null, true, null, null, lastSignIn, null, null);
+    }
+}
@@ -0,0 +1,134 @@
+package com.datatransformer.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeltaStoreTest {
+
+    @Test
+    void update_shouldReportOnlyNewAndChangedIds_whenPreviousRunIsCommitted(@TempDir Path tempDir)
+            throws IOException {
+        // Arrange
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+            store.update("a", 1);
+            store.update("b", 2);
+            store.commitRun(false);
+        }
+
+        // Act
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+
+            // Assert
+            assertThat(store.run()).isEqualTo(2);
+            assertThat(store.update("a", 1)).isFalse();
+            assertThat(store.update("b", 20)).isTrue();
+            assertThat(store.update("c", 3)).isTrue();
+        }
+    }
+
+    @Test
+    void update_shouldReportChangesAgain_whenRunWasNotCommitted(@TempDir Path tempDir) throws IOException {
+        // Arrange: the second run sees a change but fails before it is committed
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+            store.update("a", 1);
+            store.commitRun(false);
+        }
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+            store.update("a", 2);
+            store.update("new", 5);
+        }
+
+        // Act
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+
+            // Assert
+            assertThat(store.run()).isEqualTo(2);
+            assertThat(store.update("a", 2)).isTrue();
+            assertThat(store.update("new", 5)).isTrue();
+            assertThat(store.update("a", 1)).isFalse();
+        }
+    }
+
+    @Test
+    void commitRun_shouldReportAndDropUnseenIds_whenTableHasGrown(@TempDir Path tempDir) throws IOException {
+        // Arrange: enough ids to resize the table several times
+        int count = 200_000;
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+            for (int i = 0; i < count; i++) {
+                store.update("user-" + i, i);
+            }
+            store.commitRun(true);
+        }
+
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+            for (int i = 0; i < count; i++) {
+                if (i != 7 && i != 150_000) {
+                    assertThat(store.update("user-" + i, i)).isFalse();
+                }
+            }
+
+            // Act
+            assertThat(store.unseenIds()).containsExactlyInAnyOrder("user-7", "user-150000");
+            store.commitRun(true);
+        }
+
+        // Assert
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+            assertThat(store.size()).isEqualTo(count);
+            assertThat(store.update("user-7", 7)).isTrue();
+            assertThat(store.update("user-8", 8)).isFalse();
+        }
+    }
+
+    @Test
+    void update_shouldReportOnlyChangedIds_whenWorkersUpdateConcurrently(@TempDir Path tempDir) throws Exception {
+        // Arrange: enough ids to resize every stripe, a tenth of which change in the second run
+        int count = 100_000;
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+            for (int i = 0; i < count; i++) {
+                store.update("user-" + i, i);
+            }
+            store.commitRun(false);
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+
+        try (DeltaStore store = DeltaStore.open(tempDir)) {
+            // Act
+            List<Future<Long>> emitted = new ArrayList<>();
+            for (int worker = 0; worker < 4; worker++) {
+                int first = worker * count / 4;
+                emitted.add(workers.submit(() -> {
+                    long changed = 0;
+                    for (int i = first; i < first + count / 4; i++) {
+                        if (store.update("user-" + i, i % 10 == 0 ? -i : i)) {
+                            changed++;
+                        }
+                    }
+                    return changed;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> future : emitted) {
+                total += future.get();
+            }
+
+            // Assert
+            assertThat(total).isEqualTo(count / 10 - 1);
+            assertThat(store.size()).isEqualTo(count);
+            assertThat(store.seen()).isEqualTo(count);
+            assertThat(store.unseenIds()).isEmpty();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.datatransformer.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirectoryWatcherTest {
+
+    private static final Duration POLL = Duration.ofMillis(50);
+
+    @Test
+    void poll_shouldReportFileOnce_whenItStopsGrowing(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("users.json");
+        try (DirectoryWatcher watcher = new DirectoryWatcher(tempDir, DirectoryWatcherTest::isJson,
+                Duration.ofMillis(300), null, false)) {
+            Files.writeString(file, "{\"value\":[");
+
+            // Act
+            List<Path> whileWriting = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                whileWriting.addAll(watcher.poll(POLL));
+                Files.writeString(file, "{},", StandardOpenOption.APPEND);
+            }
+            Files.writeString(file, "{}]}", StandardOpenOption.APPEND);
+            List<Path> afterWriting = pollFor(watcher, Duration.ofSeconds(2));
+
+            // Assert
+            assertThat(whileWriting).isEmpty();
+            assertThat(afterWriting).containsExactly(file);
+        }
+    }
+
+    @Test
+    void poll_shouldWaitForMarker_whenMarkerSuffixIsSet(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("users.json");
+        Path marker = tempDir.resolve("users.json.done");
+        try (DirectoryWatcher watcher = new DirectoryWatcher(tempDir, DirectoryWatcherTest::isJson,
+                Duration.ZERO, ".done", false)) {
+            Files.writeString(file, "{\"value\":[]}");
+
+            // Act
+            List<Path> beforeMarker = pollFor(watcher, Duration.ofMillis(300));
+            Files.createFile(marker);
+            List<Path> afterMarker = pollFor(watcher, Duration.ofSeconds(2));
+
+            // Assert
+            assertThat(beforeMarker).isEmpty();
+            assertThat(afterMarker).containsExactly(file);
+            assertThat(marker).doesNotExist();
+        }
+    }
+
+    @Test
+    void poll_shouldFindExistingAndNewFiles_whenPolling(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path existing = Files.writeString(tempDir.resolve("a.json"), "{}");
+        Files.writeString(tempDir.resolve("notes.txt"), "ignored");
+        try (DirectoryWatcher watcher = new DirectoryWatcher(tempDir, DirectoryWatcherTest::isJson,
+                Duration.ZERO, null, true)) {
+
+            // Act
+            List<Path> first = pollFor(watcher, Duration.ofMillis(200));
+            Path added = Files.writeString(tempDir.resolve("b.json"), "{}");
+            List<Path> second = pollFor(watcher, Duration.ofMillis(200));
+
+            // Assert
+            assertThat(watcher.isPolling()).isTrue();
+            assertThat(first).containsExactly(existing);
+            assertThat(second).containsExactly(added);
+        }
+    }
+
+    private static List<Path> pollFor(DirectoryWatcher watcher, Duration duration) throws Exception {
+        List<Path> ready = new ArrayList<>();
+        long deadline = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < deadline) {
+            ready.addAll(watcher.poll(POLL));
+        }
+        return ready;
+    }
+
+    private static boolean isJson(Path path) {
+        return path.getFileName().toString().endsWith(".json");
+    }
+}
@@ -0,0 +1,82 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.TargetUser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.datatransformer.pipeline.TargetUserCodec.BY_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExternalSorterTest {
+
+    @Test
+    void merge_shouldReturnAllUsersInIdOrder_whenRunsSpanSeveralFiles(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        List<TargetUser> first = users(3_000);
+        List<TargetUser> second = new ArrayList<>(users(2_000));
+        second.add(new TargetUser(null, null, null, null, null, null, null, null, null, null, null));
+        List<TargetUser> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        expected.sort(BY_ID);
+
+        try (ExternalSorter<TargetUser> sorter = ExternalSorter.open(tempDir, new TargetUserCodec(), BY_ID,
+                TargetUserCodec.RECORDS_BY_ID, TargetUserCodec::estimatedSize, 200_000, 2)) {
+            sorter.write(first.stream(), sorter.runDirectory("first.json"));
+            sorter.write(second.stream(), sorter.runDirectory("second.json"));
+            sorter.add(sorter.runDirectory("first.json"));
+            sorter.add(sorter.runDirectory("second.json"));
+
+            // Act
+            List<TargetUser> merged;
+            try (Stream<TargetUser> stream = sorter.merge()) {
+                merged = stream.toList();
+            }
+
+            // Assert
+            assertThat(sorter.runCount()).isGreaterThan(4);
+            assertThat(merged).containsExactlyElementsOf(expected);
+        }
+        try (Stream<Path> left = Files.list(tempDir)) {
+            assertThat(left).isEmpty();
+        }
+    }
+
+    @Test
+    void write_shouldReplaceEarlierRuns_whenRunDirectoryIsWrittenAgain(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        List<TargetUser> users = users(1_000);
+        try (ExternalSorter<TargetUser> sorter = ExternalSorter.open(tempDir, new TargetUserCodec(), BY_ID,
+                TargetUserCodec.RECORDS_BY_ID, TargetUserCodec::estimatedSize, 50_000, 2)) {
+            Path runs = sorter.runDirectory("users.json");
+            Stream<TargetUser> failing = Stream.concat(users.stream(), Stream.generate(() -> {
+                throw new IllegalStateException("read failed");
+            }));
+            assertThatThrownBy(() -> sorter.write(failing, runs)).isInstanceOf(IllegalStateException.class);
+
+            // Act
+            sorter.write(users.stream().limit(10), runs);
+            sorter.add(runs);
+
+            // Assert
+            try (Stream<TargetUser> merged = sorter.merge()) {
+                assertThat(merged).containsExactlyElementsOf(users.stream().limit(10).sorted(BY_ID).toList());
+            }
+        }
+    }
+
+    private static List<TargetUser> users(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new TargetUser(UUID.randomUUID().toString(), "ext-" + i,
+                i % 3 == 0 ? null : "user" + i + "@example.com", "Member", "Zürich", i % 2 == 0 ? null : i % 4 == 1,
+                "First", "Last", "2024-01-15T10:30:00Z", null, null)).toList();
+    }
+}
@@ -0,0 +1,121 @@
+package com.datatransformer.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdIndexTest {
+
+    @Test
+    void claimFirst_shouldKeepOneRecordPerId_whenFilesOverlap() {
+        // Arrange
+        IdIndex index = new IdIndex(4);
+        long firstFile = IdIndex.owner(1, 0);
+        long secondFile = IdIndex.owner(2, 0);
+
+        // Act & Assert
+        assertThat(index.claimFirst(10, firstFile)).isTrue();
+        assertThat(index.claimFirst(10, firstFile)).isFalse();
+        assertThat(index.claimFirst(10, secondFile)).isFalse();
+        assertThat(index.claimFirst(11, secondFile)).isTrue();
+        // A retry of the first file gets its ids back
+        assertThat(index.claimFirst(10, IdIndex.owner(1, 1))).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void claimWinner_shouldKeepOnlyLatestRecord_whenOfferedSeveral() {
+        // Arrange
+        IdIndex index = new IdIndex(4);
+        index.offer(10, 1_000, 111, 1);
+        index.offer(10, 3_000, 333, 1);
+        index.offer(10, 2_000, 222, 2);
+        long owner = IdIndex.owner(1, 0);
+
+        // Act & Assert
+        assertThat(index.claimWinner(10, 1_000, 111, owner)).isFalse();
+        assertThat(index.claimWinner(10, 3_000, 333, owner)).isTrue();
+        assertThat(index.claimWinner(10, 3_000, 333, IdIndex.owner(2, 0))).isFalse();
+        assertThat(index.claimWinner(99, 0, 0, owner)).isTrue();
+    }
+
+    @Test
+    void release_shouldLetOtherFilesClaimIds_whenOwningFileFailed() {
+        // Arrange
+        IdIndex index = new IdIndex(4);
+        index.offer(20, 2_000, 222, 1);
+        index.offer(20, 1_000, 111, 2);
+        assertThat(index.claimFirst(10, IdIndex.owner(1, 0))).isTrue();
+        assertThat(index.claimFirst(11, IdIndex.owner(1, 1))).isTrue();
+        assertThat(index.claimWinner(20, 2_000, 222, IdIndex.owner(1, 1))).isTrue();
+        assertThat(index.claimFirst(12, IdIndex.owner(2, 0))).isTrue();
+
+        // Act
+        index.release(1);
+
+        // Assert
+        assertThat(index.claimFirst(10, IdIndex.owner(2, 0))).isTrue();
+        assertThat(index.claimFirst(11, IdIndex.owner(3, 0))).isTrue();
+        assertThat(index.claimFirst(12, IdIndex.owner(3, 0))).isFalse();
+        // The winner is gone, so the next copy claimed takes its place
+        assertThat(index.claimWinner(20, 1_000, 111, IdIndex.owner(2, 0))).isTrue();
+        assertThat(index.claimWinner(20, 2_000, 222, IdIndex.owner(3, 0))).isFalse();
+    }
+
+    @Test
+    void release_shouldWithdrawBestOffers_whenOfferingFileFailed() {
+        // Arrange
+        IdIndex index = new IdIndex(4);
+        index.offer(30, 3_000, 333, 1);
+        index.offer(30, 1_000, 111, 2);
+        index.offer(31, 1_000, 111, 1);
+        index.offer(31, 2_000, 222, 2);
+
+        // Act
+        index.release(1);
+
+        // Assert: file 1 made the best offer for 30, so the first remaining copy wins; 31 is unaffected
+        assertThat(index.claimWinner(30, 1_000, 111, IdIndex.owner(3, 0))).isTrue();
+        assertThat(index.claimWinner(31, 1_000, 111, IdIndex.owner(3, 0))).isFalse();
+        assertThat(index.claimWinner(31, 2_000, 222, IdIndex.owner(4, 0))).isTrue();
+    }
+
+    @Test
+    void claimFirst_shouldLetExactlyOneWorkerWinEachId_whenClaimedConcurrently() throws Exception {
+        // Arrange: every worker claims the same ids, enough to make the stripes grow while they race
+        int workers = 8;
+        int ids = 100_000;
+        IdIndex index = new IdIndex(workers);
+        AtomicInteger wins = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int worker = 1; worker <= workers; worker++) {
+            long owner = IdIndex.owner(worker, 0);
+            futures.add(executor.submit(() -> {
+                for (int id = 0; id < ids; id++) {
+                    if (index.claimFirst(Fingerprints.hash("user-" + id), owner)) {
+                        wins.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(wins.get()).isEqualTo(ids);
+        assertThat(index.size()).isEqualTo(ids);
+    }
+}
@@ -0,0 +1,103 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.component.UserTransformer;
+import com.datatransformer.model.RawSignInActivity;
+import com.datatransformer.model.RawUser;
+import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.interfaces.Transformer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappingCompilerTest {
+
+    @Test
+    void compile_shouldMatchUserTransformer_whenGivenTheBundledUserMapping() throws IOException {
+        // Arrange
+        Transformer<RawUser, TargetUser> mapped;
+        try (InputStream input = getClass().getResourceAsStream("/mappings/user.yaml")) {
+            mapped = MappingCompiler.compile(MappingSpec.parse(input), RawUser.class, TargetUser.class);
+        }
+        List<RawUser> users = List.of(
+                new RawUser("1", "upn", "mail", "Member", "US", true, "First", "Last",
+                        new RawSignInActivity("2024-01-01T00:00:00Z", "2024-01-02T00:00:00Z", null)),
+                new RawUser("2", null, null, "Guest", null, false, null, "Last", null),
+                new RawUser(null, null, null, null, null, null, null, null, null));
+        UserTransformer handWritten = new UserTransformer();
+
+        // Act & Assert
+        for (RawUser user : users) {
+            assertThat(mapped.transform(user)).isEqualTo(handWritten.transform(user));
+        }
+    }
+
+    @Test
+    void compile_shouldApplyDefaultsAndConstants_whenSourceIsNull() {
+        // Arrange
+        MappingSpec spec = parse("""
+                fields:
+                  - target: id
+                  - target: location
+                    source: usageLocation
+                    default: US
+                  - target: isEnabled
+                    source: accountEnabled
+                    default: true
+                  - target: type
+                    default: Member
+                  - target: lastSignInDateTime
+                    source: signInActivity.lastSignInDateTime
+                    default: never
+                """);
+        Transformer<RawUser, TargetUser> transformer = MappingCompiler.compile(spec, RawUser.class, TargetUser.class);
+
+        // Act
+        TargetUser user = transformer.transform(new RawUser("1", "upn", "mail", "Guest", null, null, null, null, null));
+
+        // Assert
+        assertThat(user).isEqualTo(new TargetUser("1", null, null, "Member", "US", true, null, null, "never", null,
+                null));
+    }
+
+    @Test
+    void compile_shouldFail_whenMappingReferencesUnknownProperties() {
+        // Arrange
+        MappingSpec unknownSource = parse("""
+                fields:
+                  - target: id
+                    source: signInActivity.nope
+                """);
+        MappingSpec unknownTarget = parse("""
+                fields:
+                  - target: nope
+                    source: id
+                """);
+        MappingSpec wrongType = parse("""
+                fields:
+                  - target: isEnabled
+                    source: id
+                """);
+
+        // Act & Assert
+        assertThatThrownBy(() -> MappingCompiler.compile(unknownSource, RawUser.class, TargetUser.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown property 'nope' on RawSignInActivity");
+        assertThatThrownBy(() -> MappingCompiler.compile(unknownTarget, RawUser.class, TargetUser.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown target fields on TargetUser: [nope]");
+        assertThatThrownBy(() -> MappingCompiler.compile(wrongType, RawUser.class, TargetUser.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cannot be assigned to target field 'isEnabled'");
+    }
+
+    private static MappingSpec parse(String yaml) {
+        return MappingSpec.parse(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
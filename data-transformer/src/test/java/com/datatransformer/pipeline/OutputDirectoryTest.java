@@ -0,0 +1,91 @@
+package com.datatransformer.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputDirectoryTest {
+
+    @Test
+    void open_shouldDeleteInProgressOutputs_whenLeftByEarlierProcess(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(outputDir.resolve(".inprogress.part"));
+        Files.writeString(outputDir.resolve(".inprogress.part").resolve("part-0.json"), "{}");
+        Files.writeString(outputDir.resolve(".inprogress.users.json"), "{}");
+        Files.writeString(outputDir.resolve("done.json"), "{}");
+
+        // Act
+        try (OutputDirectory output = OutputDirectory.open(outputDir, null)) {
+
+            // Assert
+            try (var files = Files.list(outputDir)) {
+                assertThat(files.map(file -> file.getFileName().toString())).containsExactly("done.json");
+            }
+        }
+    }
+
+    @Test
+    void publish_shouldReplaceEarlierOutputDirectory_whenPartitionedOutputIsRepublished(@TempDir Path tempDir)
+            throws IOException {
+        // Arrange
+        Path outputDir = tempDir.resolve("output");
+        try (OutputDirectory output = OutputDirectory.open(outputDir, null)) {
+            Files.createDirectories(output.inProgress("users"));
+            Files.writeString(output.inProgress("users").resolve("old.json"), "old");
+            output.publish("users");
+            Files.createDirectories(output.inProgress("users"));
+            Files.writeString(output.inProgress("users").resolve("new.json"), "new!");
+
+            // Act
+            long size = output.publish("users");
+
+            // Assert
+            assertThat(size).isEqualTo(4);
+            try (var files = Files.list(outputDir.resolve("users"))) {
+                assertThat(files.map(file -> file.getFileName().toString())).containsExactly("new.json");
+            }
+            assertThat(output.inProgress("users")).doesNotExist();
+        }
+    }
+
+    @Test
+    void isCommitted_shouldRecogniseInput_whenCommittedBeforeReopening(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path outputDir = tempDir.resolve("output");
+        Path journalFile = outputDir.resolve(".journal");
+        try (OutputDirectory output = OutputDirectory.open(outputDir, journalFile)) {
+            Files.writeString(output.inProgress("users.json"), "{}");
+            output.publish("users.json");
+            output.commit("users.json", 10, 100, "users.json");
+        }
+
+        // Act
+        try (OutputDirectory output = OutputDirectory.open(outputDir, journalFile)) {
+
+            // Assert
+            assertThat(output.isCommitted("users.json", 10, 100)).isTrue();
+            assertThat(output.isCommitted("users.json", 11, 100)).isFalse();
+        }
+        assertThat(outputDir.resolve("users.json")).hasContent("{}");
+    }
+
+    @Test
+    void commit_shouldNotJournal_whenOpenedWithoutJournal(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        try (OutputDirectory output = OutputDirectory.open(tempDir, null)) {
+
+            // Act
+            output.commit("users.json", 10, 100, "users.json");
+
+            // Assert
+            assertThat(output.isCommitted("users.json", 10, 100)).isFalse();
+            assertThat(output.publish("missing.json")).isZero();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.model.RawSignInActivity;
+import com.datatransformer.model.RawUser;
+import com.datatransformer.model.TargetUser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordCodecTest {
+
+    @Test
+    void read_shouldReturnWrittenUsers_whenFieldsAreNullOrNonAscii() throws IOException {
+        // Arrange
+        List<TargetUser> targetUsers = List.of(
+                new TargetUser("1", "ext-1", "mail", "Member", "US", true, "Zoë", "Ærø", "2024-01-01", null, null),
+                new TargetUser(null, null, null, null, null, null, null, null, null, null, null),
+                new TargetUser("2", null, null, "Member", "US", false, "名", null, null, null, "2024-01-02"));
+        List<RawUser> rawUsers = List.of(
+                new RawUser("1", "upn", "mail", "Guest", "DE", true, "First", "Last",
+                        new RawSignInActivity("2024-01-01", null, "2024-01-03")),
+                new RawUser("2", null, null, "Guest", "DE", null, null, null, null));
+
+        // Act & Assert
+        assertThat(roundTrip(targetUsers, new TargetUserCodec())).isEqualTo(targetUsers);
+        assertThat(roundTrip(rawUsers, new RawUserCodec())).isEqualTo(rawUsers);
+    }
+
+    @Test
+    void write_shouldCodeRepeatedValuesOnce_whenFieldsUseTheDictionary() throws IOException {
+        // Arrange
+        TargetUser user = new TargetUser("1", null, null, "Member", "US", true, null, null, null, null, null);
+
+        // Act
+        int first = encode(List.of(user), new TargetUserCodec()).length;
+        int twice = encode(List.of(user, user), new TargetUserCodec()).length;
+
+        // Assert: the second record refers to "Member" and "US" instead of repeating them
+        assertThat(twice - first).isEqualTo(first - "Member".length() - "US".length());
+    }
+
+    @Test
+    void compareString_shouldMatchStringOrder_whenIdsAreNotAscii() throws IOException {
+        // Arrange: UTF-8 byte order puts U+FFFF before a surrogate pair, UTF-16 order after it
+        List<String> ids = Arrays.asList("a", "ab", "b", "é", "\uFFFF", "\uD83D\uDE00", "", null);
+        List<TargetUser> users = ids.stream()
+                .map(id -> new TargetUser(id, null, null, null, null, null, null, null, null, null, null))
+                .toList();
+        byte[] encoded = encode(users, new TargetUserCodec());
+
+        // Act & Assert
+        for (int i = 0; i < users.size(); i++) {
+            for (int j = 0; j < users.size(); j++) {
+                BinaryRecordReader left = readerAt(encoded, i);
+                BinaryRecordReader right = readerAt(encoded, j);
+                assertThat(Integer.signum(TargetUserCodec.RECORDS_BY_ID.compare(left.record(), right.record())))
+                        .as("%s vs %s", ids.get(i), ids.get(j))
+                        .isEqualTo(Integer.signum(TargetUserCodec.BY_ID.compare(users.get(i), users.get(j))));
+            }
+        }
+    }
+
+    private static <T> List<T> roundTrip(List<T> records, RecordCodec<T> codec) throws IOException {
+        BinaryRecordReader reader = new BinaryRecordReader(ByteBuffer.wrap(encode(records, codec)));
+        List<T> read = new ArrayList<>();
+        while (reader.next()) {
+            read.add(codec.read(reader.record()));
+        }
+        return read;
+    }
+
+    private static <T> byte[] encode(List<T> records, RecordCodec<T> codec) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryRecordWriter writer = new BinaryRecordWriter(bytes)) {
+            for (T record : records) {
+                codec.write(record, writer);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // Direct buffers take the same path as memory-mapped runs
+    private static BinaryRecordReader readerAt(byte[] encoded, int index) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length).put(encoded).flip();
+        BinaryRecordReader reader = new BinaryRecordReader(buffer);
+        for (int i = 0; i <= index; i++) {
+            reader.next();
+        }
+        return reader;
+    }
+}
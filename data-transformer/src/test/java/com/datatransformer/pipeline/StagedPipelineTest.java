@@ -0,0 +1,168 @@
+package com.datatransformer.pipeline;
+
+import com.datatransformer.pipeline.interfaces.Sink;
+import com.datatransformer.pipeline.interfaces.Source;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class StagedPipelineTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void run_shouldKeepInputOrder_whenOrderedWithManyTransformers() throws Exception {
+        // Arrange
+        List<Integer> input = IntStream.range(0, 10_000).boxed().toList();
+        List<Integer> output = new CopyOnWriteArrayList<>();
+        StagedPipeline<Integer, Integer> pipeline = new StagedPipeline<>(value -> {
+            if (ThreadLocalRandom.current().nextInt(500) == 0) {
+                sleep(2);
+            }
+            return value * 2;
+        }, executor, 64, 4, 2, true);
+
+        // Act
+        pipeline.run(unused -> input.stream(), "input", (stream, unused) -> stream.forEach(output::add), "output");
+
+        // Assert
+        assertThat(output).containsExactlyElementsOf(input.stream().map(value -> value * 2).toList());
+    }
+
+    @Test
+    void run_shouldRunStagesOnSeparateThreads_whenUnordered() throws Exception {
+        // Arrange
+        Set<String> readerThreads = ConcurrentHashMap.newKeySet();
+        Set<String> transformerThreads = ConcurrentHashMap.newKeySet();
+        List<Integer> output = new CopyOnWriteArrayList<>();
+        Source<Integer, String> source = unused -> IntStream.range(0, 1_000).boxed()
+                .peek(value -> readerThreads.add(Thread.currentThread().getName()));
+        StagedPipeline<Integer, Integer> pipeline = new StagedPipeline<>(value -> {
+            transformerThreads.add(Thread.currentThread().getName());
+            return value;
+        }, executor, 10, 3, 2, false);
+
+        // Act
+        pipeline.run(source, "input", (stream, unused) -> stream.forEach(output::add), "output");
+
+        // Assert
+        assertThat(output).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 1_000).boxed().toList());
+        assertThat(readerThreads).hasSize(1).doesNotContain(Thread.currentThread().getName());
+        assertThat(transformerThreads).doesNotContainAnyElementsOf(readerThreads)
+                .doesNotContain(Thread.currentThread().getName());
+    }
+
+    @Test
+    void run_shouldBoundRecordsInFlight_whenSinkIsSlow() throws Exception {
+        // Arrange
+        int batchSize = 10;
+        int transformers = 2;
+        int queueCapacity = 2;
+        AtomicLong read = new AtomicLong();
+        AtomicLong maxAhead = new AtomicLong();
+        Source<Integer, String> source = unused -> IntStream.range(0, 2_000).boxed()
+                .peek(value -> read.incrementAndGet());
+        Sink<Integer, String> slowSink = (stream, unused) -> {
+            AtomicLong written = new AtomicLong();
+            stream.forEach(value -> {
+                maxAhead.accumulateAndGet(read.get() - written.incrementAndGet(), Math::max);
+                if (value % 100 == 0) {
+                    sleep(5);
+                }
+            });
+        };
+        StagedPipeline<Integer, Integer> pipeline = new StagedPipeline<>(value -> value, executor, batchSize,
+                transformers, queueCapacity, true);
+
+        // Act
+        pipeline.run(source, "input", slowSink, "output");
+
+        // Assert: the permitted batches, plus the one the reader is filling and the one the sink is consuming
+        assertThat(maxAhead.get()).isLessThanOrEqualTo((2L * queueCapacity + transformers + 2) * batchSize);
+    }
+
+    @Test
+    void run_shouldReportQueueDepthsUntilDone_whenSinkIsSlow() throws Exception {
+        // Arrange
+        int queueCapacity = 3;
+        Map<StageMetrics.BatchQueue, IntSupplier> open = new ConcurrentHashMap<>();
+        AtomicInteger maxTransformedDepth = new AtomicInteger();
+        StageMetrics metrics = new StageMetrics() {
+            @Override
+            public void queueOpened(BatchQueue queue, IntSupplier depth) {
+                open.put(queue, depth);
+            }
+
+            @Override
+            public void queueClosed(BatchQueue queue, IntSupplier depth) {
+                open.remove(queue, depth);
+            }
+        };
+        Sink<Integer, String> slowSink = (stream, unused) -> stream.forEach(value -> {
+            if (value % 100 == 0) {
+                maxTransformedDepth.accumulateAndGet(open.get(StageMetrics.BatchQueue.TRANSFORMED).getAsInt(),
+                        Math::max);
+                sleep(5);
+            }
+        });
+        StagedPipeline<Integer, Integer> pipeline = new StagedPipeline<>(value -> value, executor, 10, 2,
+                queueCapacity, false, metrics);
+
+        // Act
+        pipeline.run(unused -> IntStream.range(0, 2_000).boxed(), "input", slowSink, "output");
+
+        // Assert: the sink falls behind, so the transformed queue fills up
+        assertThat(maxTransformedDepth.get()).isPositive().isLessThanOrEqualTo(queueCapacity);
+        assertThat(open).isEmpty();
+    }
+
+    @Test
+    void run_shouldPropagateFailureAndCloseSource_whenTransformerThrows() {
+        // Arrange
+        AtomicBoolean sourceClosed = new AtomicBoolean();
+        Source<Integer, String> source = unused -> Stream.iterate(0, value -> value + 1)
+                .onClose(() -> sourceClosed.set(true));
+        StagedPipeline<Integer, Integer> pipeline = new StagedPipeline<>(value -> {
+            if (value == 5_000) {
+                throw new IllegalArgumentException("bad record");
+            }
+            return value;
+        }, executor, 100, 2, 2, true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> pipeline.run(source, "input", (stream, unused) -> stream.forEach(value -> {
+        }), "output")).isInstanceOf(IllegalArgumentException.class).hasMessage("bad record");
+        await().untilTrue(sourceClosed);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.datatransformer.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkStealingSchedulerTest {
+
+    @Test
+    void run_shouldStartLargestJobsFirst_whenSingleWorker() throws InterruptedException {
+        // Arrange
+        List<WorkStealingScheduler.Job<String>> jobs = List.of(
+                new WorkStealingScheduler.Job<>("small", 10),
+                new WorkStealingScheduler.Job<>("huge", 5_000),
+                new WorkStealingScheduler.Job<>("medium", 300));
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        // Act
+        WorkStealingScheduler.run(jobs, 1, "test-worker-", order::add);
+
+        // Assert
+        assertThat(order).containsExactly("huge", "medium", "small");
+    }
+
+    @Test
+    void run_shouldStealQueuedJobs_whenOwnerIsBusy() throws InterruptedException {
+        // Arrange: "slow" and one small job land on the same worker; "slow" only finishes once every
+        // other job has run, so the small job behind it must be stolen by the other worker
+        CountDownLatch othersDone = new CountDownLatch(4);
+        List<WorkStealingScheduler.Job<String>> jobs = List.of(
+                new WorkStealingScheduler.Job<>("slow", 10),
+                new WorkStealingScheduler.Job<>("a", 9),
+                new WorkStealingScheduler.Job<>("b", 1),
+                new WorkStealingScheduler.Job<>("c", 1),
+                new WorkStealingScheduler.Job<>("d", 1));
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        // Act
+        WorkStealingScheduler.run(jobs, 2, "test-worker-", job -> {
+            if (job.equals("slow")) {
+                try {
+                    ran.add(othersDone.await(5, TimeUnit.SECONDS) ? "slow" : "slow-timed-out");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                ran.add(job);
+                othersDone.countDown();
+            }
+        });
+
+        // Assert
+        assertThat(ran).containsExactlyInAnyOrder("slow", "a", "b", "c", "d");
+    }
+}
@@ -0,0 +1,66 @@
+package com.datatransformer.service;
+
+import com.datatransformer.component.JsonFileSink;
+import com.datatransformer.component.JsonFileSource;
+import com.datatransformer.component.UserJsonTranscoder;
+import com.datatransformer.component.UserTransformer;
+import com.datatransformer.testutil.TestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Processes a multi-GB synthetic export end to end. Run with {@code mvn test -Pperf},
+ * which limits the heap so that any whole-file buffering fails with an OutOfMemoryError.
+ */
+@Tag("perf")
+class PipelineOrchestratorLargeFileTest {
+
+    // ~470 bytes per synthetic user, so the default produces a ~2 GB input file
+    private static final long RECORDS = Long.getLong("perf.large-file.records", 4_500_000L);
+
+    @Test
+    void run_shouldProcessMultiGigabyteFile_withBoundedHeap(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        TestUtil.writeSyntheticRawUserJson(inputDir.resolve("large.json"), RECORDS);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        PipelineOrchestrator orchestrator = new PipelineOrchestrator(
+                new JsonFileSource(objectMapper),
+                new UserTransformer(),
+                new JsonFileSink(objectMapper),
+                new UserJsonTranscoder(objectMapper),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(orchestrator, "threadPoolSize", 1);
+        ReflectionTestUtils.setField(orchestrator, "queueCapacity", 1);
+        ReflectionTestUtils.setField(orchestrator, "batchSize", 1000);
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        Path outputFile = outputDir.resolve("large.json");
+        assertThat(inputDir.resolve("processed").resolve("large.json")).exists();
+        long lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(outputFile)) {
+            while (reader.readLine() != null) {
+                lines++;
+            }
+        }
+        assertThat(lines).isEqualTo(RECORDS);
+    }
+}
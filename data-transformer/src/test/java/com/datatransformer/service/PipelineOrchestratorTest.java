@@ -1,12 +1,22 @@
 package com.datatransformer.service;
 
+import com.datatransformer.component.JsonFileSink;
+import com.datatransformer.component.JsonFileSource;
+import com.datatransformer.component.PartitionedFileSink;
+import com.datatransformer.component.UserJsonTranscoder;
+import com.datatransformer.component.UserTransformer;
 import com.datatransformer.model.RawUser;
 import com.datatransformer.model.TargetUser;
+import com.datatransformer.pipeline.Compression;
+import com.datatransformer.pipeline.DedupPolicy;
+import com.datatransformer.pipeline.interfaces.FileSink;
 import com.datatransformer.pipeline.interfaces.Sink;
 import com.datatransformer.pipeline.interfaces.Source;
 import com.datatransformer.pipeline.interfaces.Transformer;
-import io.micrometer.core.instrument.Counter;
+import com.datatransformer.testutil.TestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,12 +26,25 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,23 +60,23 @@ class PipelineOrchestratorTest {
     private Sink<TargetUser, Path> sink;
 
     @Mock
-    private MeterRegistry meterRegistry;
+    private UserJsonTranscoder transcoder;
 
-    @Mock
-    private Counter counter;
+    private MeterRegistry meterRegistry;
 
     private PipelineOrchestrator orchestrator;
 
     @BeforeEach
     void setUp() {
 
-        when(meterRegistry.counter(anyString())).thenReturn(counter);
+        meterRegistry = new SimpleMeterRegistry();
 
-        orchestrator = new PipelineOrchestrator(source, transformer, sink, meterRegistry);
+        orchestrator = new PipelineOrchestrator(source, transformer, sink, transcoder, meterRegistry);
 
         ReflectionTestUtils.setField(orchestrator, "threadPoolSize", Runtime.getRuntime().availableProcessors());
         ReflectionTestUtils.setField(orchestrator, "queueCapacity", 100);
         ReflectionTestUtils.setField(orchestrator, "batchSize", 1000);
+        ReflectionTestUtils.setField(orchestrator, "retryInitialDelay", Duration.ofMillis(1));
     }
 
     @Test
@@ -87,7 +110,7 @@ class PipelineOrchestratorTest {
     }
 
     @Test
-    void run_shouldHandleProcessingError_whenSourceFails(@TempDir Path tempDir) throws IOException {
+    void run_shouldRetryAndMoveToFailed_whenSourceKeepsFailing(@TempDir Path tempDir) throws IOException {
         // Arrange
         Path inputDir = tempDir.resolve("input");
         Path outputDir = tempDir.resolve("output");
@@ -101,7 +124,587 @@ class PipelineOrchestratorTest {
         orchestrator.run(inputDir, outputDir);
 
         // Assert
-        verify(source, times(1)).read(any(Path.class));
+        verify(source, times(3)).read(any(Path.class));
         verify(sink, never()).write(any(), any());
+        assertThat(inputDir.resolve("failed").resolve("test.json")).exists();
+        assertThat(inputDir.resolve("test.json")).doesNotExist();
+    }
+
+    @Test
+    void run_shouldResumeFromLastCheckpoint_whenSinkFailsMidFile(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        TestUtil.writeSyntheticRawUserJson(inputDir.resolve("users.json"), 10_000);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonFileSink jsonSink = new JsonFileSink(objectMapper);
+        AtomicLong transformed = new AtomicLong();
+        AtomicLong appends = new AtomicLong();
+        // The third chunk gets half written before the sink fails once
+        FileSink<TargetUser> flakySink = new FileSink<>() {
+            @Override
+            public String fileExtension(Compression compression) {
+                return jsonSink.fileExtension(compression);
+            }
+
+            @Override
+            public boolean supportsAppend() {
+                return true;
+            }
+
+            @Override
+            public void write(Stream<TargetUser> data, Path output) throws IOException {
+                jsonSink.write(data, output);
+            }
+
+            @Override
+            public void append(Stream<TargetUser> data, Path output) throws IOException {
+                if (appends.incrementAndGet() == 3) {
+                    jsonSink.append(data.limit(500), output);
+                    throw new IOException("Disk hiccup");
+                }
+                jsonSink.append(data, output);
+            }
+        };
+        UserTransformer userTransformer = new UserTransformer();
+        PipelineOrchestrator checkpointing = new PipelineOrchestrator(new JsonFileSource(objectMapper),
+                user -> {
+                    transformed.incrementAndGet();
+                    return userTransformer.transform(user);
+                }, flakySink, transcoder, meterRegistry);
+        ReflectionTestUtils.setField(checkpointing, "threadPoolSize", 1);
+        ReflectionTestUtils.setField(checkpointing, "queueCapacity", 10);
+        ReflectionTestUtils.setField(checkpointing, "retryInitialDelay", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(checkpointing, "checkpointRecords", 1_000L);
+        ReflectionTestUtils.setField(checkpointing, "batchSize", 100);
+
+        Path expected = tempDir.resolve("expected.json");
+        try (Stream<RawUser> users = new JsonFileSource(objectMapper).read(inputDir.resolve("users.json"))) {
+            jsonSink.write(users.map(userTransformer::transform), expected);
+        }
+
+        // Act
+        checkpointing.run(inputDir, outputDir);
+
+        // Assert: only the failed chunk is transformed twice, and its partial output is replaced
+        assertThat(inputDir.resolve("processed").resolve("users.json")).exists();
+        assertThat(Files.mismatch(outputDir.resolve("users.json"), expected)).isEqualTo(-1);
+        assertThat(transformed.get()).isEqualTo(10_000 + 500);
+    }
+
+    @Test
+    void run_shouldRecordStageMetrics_whenFileIsProcessed(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        TestUtil.writeSyntheticRawUserJson(inputDir.resolve("users.json"), 2_500);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        PipelineOrchestrator instrumented = new PipelineOrchestrator(new JsonFileSource(objectMapper),
+                new UserTransformer(), new JsonFileSink(objectMapper), transcoder, meterRegistry);
+        ReflectionTestUtils.setField(instrumented, "threadPoolSize", 1);
+        ReflectionTestUtils.setField(instrumented, "queueCapacity", 10);
+        ReflectionTestUtils.setField(instrumented, "batchSize", 1000);
+
+        // Act
+        instrumented.run(inputDir, outputDir);
+
+        // Assert: three batches went through each stage
+        for (String stage : List.of("read", "transform", "write")) {
+            assertThat(meterRegistry.get("pipeline.stage.duration").tag("stage", stage).timer().count()).isEqualTo(3);
+            assertThat(meterRegistry.get("pipeline.stage.records").tag("stage", stage).counter().count())
+                    .isEqualTo(2_500);
+        }
+        assertThat(meterRegistry.get("pipeline.stage.duration").tag("stage", "move").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pipeline.file.duration").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("pipeline.bytes.read").counter().count())
+                .isEqualTo(Files.size(inputDir.resolve("processed").resolve("users.json")));
+        assertThat(meterRegistry.get("pipeline.bytes.written").counter().count())
+                .isEqualTo(Files.size(outputDir.resolve("users.json")));
+        assertThat(meterRegistry.get("pipeline.files.active").gauge().value()).isZero();
+        assertThat(meterRegistry.get("pipeline.files.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void run_shouldPublishPartitionDirectory_whenFileIsProcessedAgain(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        ObjectMapper objectMapper = new ObjectMapper();
+        PartitionedFileSink partitionedSink = new PartitionedFileSink(objectMapper);
+        ReflectionTestUtils.setField(partitionedSink, "count", 3);
+        PipelineOrchestrator partitioning = new PipelineOrchestrator(new JsonFileSource(objectMapper),
+                new UserTransformer(), partitionedSink, transcoder, meterRegistry);
+        ReflectionTestUtils.setField(partitioning, "threadPoolSize", 1);
+        ReflectionTestUtils.setField(partitioning, "queueCapacity", 10);
+        ReflectionTestUtils.setField(partitioning, "batchSize", 1000);
+        TestUtil.writeSyntheticRawUserJson(inputDir.resolve("users.json"), 1_000);
+        partitioning.run(inputDir, outputDir);
+
+        // Act: a later export under the same name replaces the published directory
+        TestUtil.writeSyntheticRawUserJson(inputDir.resolve("users.json"), 10);
+        partitioning.run(inputDir, outputDir);
+
+        // Assert
+        Path published = outputDir.resolve("users.json");
+        try (Stream<Path> parts = Files.list(published)) {
+            assertThat(parts.mapToLong(part -> {
+                try (Stream<String> lines = Files.lines(part)) {
+                    return lines.count();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum()).isEqualTo(10);
+        }
+        try (Stream<Path> files = Files.list(outputDir)) {
+            assertThat(files.map(file -> file.getFileName().toString())).noneMatch(name -> name.startsWith(".inprogress"));
+        }
+    }
+
+    @Test
+    void run_shouldMergeAllFilesIntoOneOutputSortedById_whenSortIsEnabled(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Path spillDir = tempDir.resolve("spill");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        TestUtil.writeSyntheticRawUserJson(inputDir.resolve("a.json"), 3_000);
+        TestUtil.writeSyntheticRawUserJson(inputDir.resolve("b.json"), 2_000);
+        ObjectMapper objectMapper = new ObjectMapper();
+        PipelineOrchestrator sorting = new PipelineOrchestrator(new JsonFileSource(objectMapper),
+                new UserTransformer(), new JsonFileSink(objectMapper), transcoder, meterRegistry);
+        ReflectionTestUtils.setField(sorting, "threadPoolSize", 2);
+        ReflectionTestUtils.setField(sorting, "queueCapacity", 10);
+        ReflectionTestUtils.setField(sorting, "batchSize", 1000);
+        ReflectionTestUtils.setField(sorting, "sortEnabled", true);
+        ReflectionTestUtils.setField(sorting, "sortSpillDir", spillDir.toString());
+        ReflectionTestUtils.setField(sorting, "sortMemoryBudget", 500_000L);
+
+        // Act
+        sorting.run(inputDir, outputDir);
+
+        // Assert
+        List<String> ids = Files.readAllLines(outputDir.resolve("users-sorted.json")).stream()
+                .map(line -> line.substring("{\"Id\":\"".length(), line.indexOf('"', "{\"Id\":\"".length())))
+                .toList();
+        assertThat(ids).hasSize(5_000).isSorted();
+        assertThat(outputDir.resolve("a.json")).doesNotExist();
+        assertThat(inputDir.resolve("processed").resolve("a.json")).exists();
+        assertThat(inputDir.resolve("processed").resolve("b.json")).exists();
+        try (Stream<Path> spills = Files.list(spillDir)) {
+            assertThat(spills).isEmpty();
+        }
+    }
+
+    @Test
+    void run_shouldStreamRecordsToSink_withoutBufferingWholeFile(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        Files.createFile(inputDir.resolve("test.json"));
+
+        long recordCount = 10_000;
+        AtomicLong read = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        AtomicLong maxInFlight = new AtomicLong();
+        RawUser rawUser = new RawUser("1", "upn", "mail", "Member", "US", true, "First", "Last", null);
+        TargetUser targetUser = new TargetUser("1", "upn", "mail", "Member", "US", true, "First", "Last", null, null,
+                null);
+
+        when(source.read(any(Path.class)))
+                .thenReturn(Stream.generate(() -> rawUser).limit(recordCount).peek(user -> read.incrementAndGet()));
+        when(transformer.transform(rawUser)).thenReturn(targetUser);
+        doAnswer(invocation -> {
+            Stream<?> stream = invocation.getArgument(0);
+            stream.forEach(item -> {
+                long inFlight = read.get() - written.incrementAndGet();
+                maxInFlight.accumulateAndGet(inFlight, Math::max);
+            });
+            return null;
+        }).when(sink).write(any(), any(Path.class));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        assertThat(written.get()).isEqualTo(recordCount);
+        assertThat(maxInFlight.get()).isLessThan(1000);
+    }
+
+    @Test
+    void run_shouldPreserveRecordOrder_whenModeIsParallel(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        Files.createFile(inputDir.resolve("test.json"));
+        ReflectionTestUtils.setField(orchestrator, "mode", ProcessingMode.PARALLEL);
+        ReflectionTestUtils.setField(orchestrator, "parallelWorkers", 4);
+        ReflectionTestUtils.setField(orchestrator, "batchSize", 100);
+
+        List<String> expectedIds = LongStream.range(0, 5_000).mapToObj(Long::toString).toList();
+        List<String> writtenIds = new CopyOnWriteArrayList<>();
+        List<String> transformThreads = new CopyOnWriteArrayList<>();
+
+        when(source.read(any(Path.class))).thenReturn(expectedIds.stream()
+                .map(id -> new RawUser(id, null, null, null, null, null, null, null, null)));
+        when(transformer.transform(any(RawUser.class))).thenAnswer(invocation -> {
+            RawUser user = invocation.getArgument(0);
+            transformThreads.add(Thread.currentThread().getName());
+            return new TargetUser(user.id(), null, null, null, null, null, null, null, null, null, null);
+        });
+        doAnswer(invocation -> {
+            Stream<TargetUser> stream = invocation.getArgument(0);
+            stream.forEach(user -> writtenIds.add(user.id()));
+            return null;
+        }).when(sink).write(any(), any(Path.class));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        assertThat(writtenIds).containsExactlyElementsOf(expectedIds);
+        assertThat(transformThreads).allMatch(name -> name.startsWith("ForkJoinPool"));
+    }
+
+    @Test
+    void run_shouldProcessCompressedFiles_andKeepTheirCompression(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        Files.createFile(inputDir.resolve("test.json.gz"));
+        Files.createFile(inputDir.resolve("notes.txt.gz"));
+
+        when(source.read(any(Path.class))).thenReturn(Stream.empty());
+        doAnswer(invocation -> Files.createFile(invocation.getArgument(1)))
+                .when(sink).write(any(), any(Path.class));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        verify(source, times(1)).read(inputDir.resolve("test.json.gz"));
+        verify(sink, times(1)).write(any(), eq(outputDir.resolve(".inprogress.test.json.gz")));
+        assertThat(outputDir.resolve("test.json.gz")).exists();
+        assertThat(outputDir.resolve(".inprogress.test.json.gz")).doesNotExist();
+    }
+
+    @Test
+    void run_shouldSkipInput_whenItIsAlreadyCommittedToTheJournal(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        Files.writeString(inputDir.resolve("test.json"), "[]");
+        Files.writeString(outputDir.resolve(".inprogress.stale.json"), "[{\"partial\"");
+
+        when(source.read(any(Path.class))).thenAnswer(invocation -> Stream.empty());
+        doAnswer(invocation -> Files.createFile(invocation.getArgument(1)))
+                .when(sink).write(any(), any(Path.class));
+        orchestrator.run(inputDir, outputDir);
+
+        // The same input shows up again, as after a crash between commit and move
+        Files.move(inputDir.resolve("processed/test.json"), inputDir.resolve("test.json"));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        verify(source, times(1)).read(any(Path.class));
+        assertThat(inputDir.resolve("processed/test.json")).exists();
+        assertThat(inputDir.resolve("test.json")).doesNotExist();
+        assertThat(outputDir.resolve(".inprogress.stale.json")).doesNotExist();
+        assertThat(Files.readAllLines(outputDir.resolve(".pipeline-journal"))).hasSize(1);
+    }
+
+    @Test
+    void run_shouldEmitOnlyChangedAndDeletedUsers_whenDeltaIsEnabled(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createFile(inputDir.resolve("export-1.json"));
+        ReflectionTestUtils.setField(orchestrator, "deltaEnabled", true);
+        ReflectionTestUtils.setField(orchestrator, "deltaEmitDeletes", true);
+
+        RawUser raw = mock(RawUser.class);
+        TargetUser alice = deltaUser("1", "alice@example.com");
+        TargetUser bob = deltaUser("2", "bob@example.com");
+        TargetUser carol = deltaUser("3", "carol@example.com");
+        TargetUser bobMoved = deltaUser("2", "bob@example.org");
+        when(source.read(any(Path.class)))
+                .thenReturn(Stream.of(raw, raw, raw))
+                .thenReturn(Stream.of(raw, raw));
+        when(transformer.transform(raw)).thenReturn(alice, bob, carol, alice, bobMoved);
+        Map<String, List<TargetUser>> written = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            Stream<TargetUser> users = invocation.getArgument(0);
+            Path output = invocation.getArgument(1);
+            written.put(output.getFileName().toString(), users.toList());
+            return null;
+        }).when(sink).write(any(), any(Path.class));
+        orchestrator.run(inputDir, outputDir);
+        Files.createFile(inputDir.resolve("export-2.json"));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        assertThat(written.get(".inprogress.export-1.json")).containsExactly(alice, bob, carol);
+        assertThat(written.get(".inprogress.export-2.json")).containsExactly(bobMoved);
+        assertThat(written).containsOnlyKeys(".inprogress.export-1.json", ".inprogress.export-2.json");
+        assertThat(outputDir.resolve("deleted-users-1.json")).isEmptyFile();
+        assertThat(Files.readAllLines(outputDir.resolve("deleted-users-2.json"))).containsExactly("{\"Id\":\"3\"}");
+    }
+
+    @Test
+    void run_shouldKeepLatestSignInPerId_whenDedupPolicyIsLastWins(@TempDir Path tempDir) throws IOException {
+        // Arrange: two overlapping exports, each with the newer record for one of the shared ids
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createFile(inputDir.resolve("a.json"));
+        Files.createFile(inputDir.resolve("b.json"));
+        ReflectionTestUtils.setField(orchestrator, "dedupPolicy", DedupPolicy.LAST_WINS);
+
+        TargetUser oldAlice = signedIn("1", "2024-01-01T00:00:00Z");
+        TargetUser newAlice = signedIn("1", "2024-03-01T00:00:00Z");
+        TargetUser oldBob = signedIn("2", "2024-01-01T00:00:00");
+        TargetUser newBob = signedIn("2", "2024-02-01T00:00:00");
+        TargetUser carol = signedIn("3", null);
+        Map<RawUser, TargetUser> users = new ConcurrentHashMap<>();
+        Map<String, List<RawUser>> files = Map.of(
+                "a.json", List.of(raw(users, oldAlice), raw(users, newBob), raw(users, carol)),
+                "b.json", List.of(raw(users, newAlice), raw(users, oldBob), raw(users, carol)));
+        when(source.read(any(Path.class)))
+                .thenAnswer(invocation -> files.get(invocation.<Path>getArgument(0).getFileName().toString()).stream());
+        when(transformer.transform(any(RawUser.class))).thenAnswer(invocation -> users.get(invocation.getArgument(0)));
+        List<TargetUser> written = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            invocation.<Stream<TargetUser>>getArgument(0).forEach(written::add);
+            return null;
+        }).when(sink).write(any(), any(Path.class));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        assertThat(written).containsExactlyInAnyOrder(newAlice, newBob, carol);
+    }
+
+    @Test
+    void run_shouldKeepCopiesFromOtherFiles_whenFileWithWinnersFails(@TempDir Path tempDir) throws IOException {
+        // Arrange: a.json holds the newer records but its writes always fail; b.json is processed after it
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.write(inputDir.resolve("a.json"), new byte[100]);
+        Files.write(inputDir.resolve("b.json"), new byte[10]);
+        ReflectionTestUtils.setField(orchestrator, "dedupPolicy", DedupPolicy.LAST_WINS);
+        ReflectionTestUtils.setField(orchestrator, "executorType", ExecutorType.WORK_STEALING);
+        ReflectionTestUtils.setField(orchestrator, "threadPoolSize", 1);
+
+        TargetUser newAlice = signedIn("1", "2024-03-01T00:00:00Z");
+        TargetUser oldAlice = signedIn("1", "2024-01-01T00:00:00Z");
+        Map<RawUser, TargetUser> users = new ConcurrentHashMap<>();
+        Map<String, List<RawUser>> files = Map.of(
+                "a.json", List.of(raw(users, newAlice)),
+                "b.json", List.of(raw(users, oldAlice)));
+        when(source.read(any(Path.class)))
+                .thenAnswer(invocation -> files.get(invocation.<Path>getArgument(0).getFileName().toString()).stream());
+        when(transformer.transform(any(RawUser.class))).thenAnswer(invocation -> users.get(invocation.getArgument(0)));
+        List<TargetUser> written = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            List<TargetUser> batch = invocation.<Stream<TargetUser>>getArgument(0).toList();
+            if (invocation.<Path>getArgument(1).getFileName().toString().endsWith("a.json")) {
+                throw new IOException("Disk full");
+            }
+            written.addAll(batch);
+            return null;
+        }).when(sink).write(any(), any(Path.class));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        assertThat(inputDir.resolve("failed").resolve("a.json")).exists();
+        assertThat(written).containsExactly(oldAlice);
+    }
+
+    @Test
+    void run_shouldFailFileAndKeepOtherCopies_whenDuplicateScanOfFileFails(@TempDir Path tempDir)
+            throws IOException {
+        // Arrange: a.json offers the newer record and then fails to transform, so only the scan sees it
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.write(inputDir.resolve("a.json"), new byte[100]);
+        Files.write(inputDir.resolve("b.json"), new byte[10]);
+        ReflectionTestUtils.setField(orchestrator, "dedupPolicy", DedupPolicy.LAST_WINS);
+        ReflectionTestUtils.setField(orchestrator, "threadPoolSize", 1);
+
+        TargetUser newAlice = signedIn("1", "2024-03-01T00:00:00Z");
+        TargetUser oldAlice = signedIn("1", "2024-01-01T00:00:00Z");
+        Map<RawUser, TargetUser> users = new ConcurrentHashMap<>();
+        RawUser broken = mock(RawUser.class);
+        Map<String, List<RawUser>> files = Map.of(
+                "a.json", List.of(raw(users, newAlice), broken),
+                "b.json", List.of(raw(users, oldAlice)));
+        when(source.read(any(Path.class)))
+                .thenAnswer(invocation -> files.get(invocation.<Path>getArgument(0).getFileName().toString()).stream());
+        when(transformer.transform(any(RawUser.class))).thenAnswer(invocation -> {
+            TargetUser user = users.get(invocation.getArgument(0));
+            if (user == null) {
+                throw new IllegalArgumentException("Malformed user");
+            }
+            return user;
+        });
+        List<TargetUser> written = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            invocation.<Stream<TargetUser>>getArgument(0).forEach(written::add);
+            return null;
+        }).when(sink).write(any(), any(Path.class));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        assertThat(inputDir.resolve("failed").resolve("a.json")).exists();
+        assertThat(written).containsExactly(oldAlice);
+        verify(sink, times(1)).write(any(), any(Path.class));
+        assertThat(meterRegistry.counter("files.processed.failure").count()).isEqualTo(1);
+    }
+
+    @Test
+    void watch_shouldFail_whenDedupIsEnabled(@TempDir Path tempDir) {
+        // Arrange
+        ReflectionTestUtils.setField(orchestrator, "dedupPolicy", DedupPolicy.FIRST_WINS);
+
+        // Act & Assert
+        assertThatThrownBy(() -> orchestrator.watch(tempDir.resolve("input"), tempDir.resolve("output")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Deduplication");
+    }
+
+    private static TargetUser signedIn(String id, String lastSignInDateTime) {
+        return new TargetUser(id, null, null, null, null, null, null, null, lastSignInDateTime, null, null);
+    }
+
+    private static RawUser raw(Map<RawUser, TargetUser> users, TargetUser user) {
+        RawUser raw = mock(RawUser.class);
+        users.put(raw, user);
+        return raw;
+    }
+
+    private static TargetUser deltaUser(String id, String mail) {
+        return new TargetUser(id, null, mail, "Member", null, true, null, null, null, null, null);
+    }
+
+    @Test
+    void run_shouldProcessFilesOnCpuPool_whenExecutorIsVirtual(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        for (int i = 0; i < 50; i++) {
+            Files.createFile(inputDir.resolve("file-" + i + ".json"));
+        }
+        ReflectionTestUtils.setField(orchestrator, "executorType", ExecutorType.VIRTUAL);
+        ReflectionTestUtils.setField(orchestrator, "threadPoolSize", 2);
+        ReflectionTestUtils.setField(orchestrator, "maxInFlightFiles", 4);
+
+        List<String> writeThreads = new CopyOnWriteArrayList<>();
+        when(source.read(any(Path.class))).thenAnswer(invocation -> Stream.empty());
+        doAnswer(invocation -> {
+            writeThreads.add(Thread.currentThread().getName());
+            return null;
+        }).when(sink).write(any(), any(Path.class));
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        try (Stream<Path> processed = Files.list(inputDir.resolve("processed"))) {
+            assertThat(processed).hasSize(50);
+        }
+        assertThat(writeThreads).hasSize(50).allMatch(name -> name.startsWith("pipeline-cpu-"));
+    }
+
+    @Test
+    void run_shouldProcessLargestFilesFirst_whenExecutorIsWorkStealing(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        Files.write(inputDir.resolve("small.json"), new byte[10]);
+        Files.write(inputDir.resolve("huge.json"), new byte[10_000]);
+        Files.write(inputDir.resolve("medium.json"), new byte[1_000]);
+        ReflectionTestUtils.setField(orchestrator, "executorType", ExecutorType.WORK_STEALING);
+        ReflectionTestUtils.setField(orchestrator, "threadPoolSize", 1);
+
+        List<String> readOrder = new CopyOnWriteArrayList<>();
+        when(source.read(any(Path.class))).thenAnswer(invocation -> {
+            readOrder.add(invocation.<Path>getArgument(0).getFileName().toString());
+            return Stream.empty();
+        });
+
+        // Act
+        orchestrator.run(inputDir, outputDir);
+
+        // Assert
+        assertThat(readOrder).containsExactly("huge.json", "medium.json", "small.json");
+        verify(sink, times(3)).write(any(), any(Path.class));
+    }
+
+    @Test
+    void watch_shouldProcessNewFilesAndDrainInFlightWork_whenStopped(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path inputDir = tempDir.resolve("input");
+        Path outputDir = tempDir.resolve("output");
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        ReflectionTestUtils.setField(orchestrator, "watchSettleTime", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(orchestrator, "watchPollInterval", Duration.ofMillis(50));
+
+        CountDownLatch secondWriteStarted = new CountDownLatch(2);
+        when(source.read(any(Path.class))).thenAnswer(invocation -> Stream.empty());
+        doAnswer(invocation -> {
+            secondWriteStarted.countDown();
+            Thread.sleep(300);
+            return null;
+        }).when(sink).write(any(), any(Path.class));
+
+        Thread watcher = new Thread(() -> orchestrator.watch(inputDir, outputDir));
+        watcher.start();
+
+        // Act
+        Files.createFile(inputDir.resolve("first.json"));
+        Files.createFile(inputDir.resolve("second.json"));
+        assertThat(secondWriteStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        orchestrator.stop();
+        watcher.join(10_000);
+
+        // Assert
+        assertThat(watcher.isAlive()).isFalse();
+        assertThat(inputDir.resolve("processed").resolve("first.json")).exists();
+        assertThat(inputDir.resolve("processed").resolve("second.json")).exists();
+        verify(sink, times(2)).write(any(), any(Path.class));
     }
 }
@@ -1,6 +1,8 @@
 package com.datatransformer.testutil;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -36,4 +38,23 @@ public class TestUtil {
                 }
                 """;
     }
+
+    // Writes a Graph-style export with the given number of users without building it in memory
+    public static void writeSyntheticRawUserJson(Path path, long records) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("{\"@odata.context\":\"https://graph.microsoft.com/v1.0/$metadata#users\",\"value\":[");
+            for (long i = 0; i < records; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write("{\"id\":\"" + i + "\",\"userPrincipalName\":\"user" + i + "@example.com\","
+                        + "\"mail\":\"user" + i + "@example.com\",\"userType\":\"Member\",\"usageLocation\":\"US\","
+                        + "\"accountEnabled\":true,\"givenName\":\"User\",\"surname\":\"" + i + "\","
+                        + "\"signInActivity\":{\"lastSignInDateTime\":\"2024-01-15T10:30:00Z\","
+                        + "\"lastSuccessfulSignInDateTime\":\"2024-01-15T10:30:00Z\","
+                        + "\"lastNonInteractiveSignInDateTime\":\"2024-01-15T10:30:00Z\"}}");
+            }
+            writer.write("]}");
+        }
+    }
 }